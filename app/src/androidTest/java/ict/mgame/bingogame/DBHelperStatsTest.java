@@ -0,0 +1,108 @@
+package ict.mgame.bingogame;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented tests for the aggregate tables kept by DBHelper.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DBHelperStatsTest {
+
+    // Scratch database file, deleted around every test
+    private static final String DATABASE_NAME = "db_helper_stats_test.db";
+    // Close to midnight UTC, so the two zones below put most wins on different days
+    private static final long BASE_TIME = 1700006400000L - 30 * 60 * 1000;
+
+    // Context of the app under test
+    private Context context;
+    // Database under test
+    private DBHelper dbHelper;
+    // Device time zone, restored after each test
+    private TimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        dbHelper = new DBHelper(context, DATABASE_NAME);
+        defaultZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+        dbHelper.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    // Wins for three users spread over a few days
+    private static List<GameInfo> sampleRows() {
+        List<GameInfo> rows = new ArrayList<>();
+        String[] users = {"Tommy", "Ann", "Bob"};
+        for (int i = 0; i < 30; i++) {
+            rows.add(new GameInfo(users[i % users.length], 4 + i % 20, null, BASE_TIME + i * 7L * 60 * 60 * 1000, i));
+        }
+        return rows;
+    }
+
+    // Asserts that two lists of totals match row for row
+    private static void assertSameStats(List<WinStats> expected, List<WinStats> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertTrue(expected.get(i).toString(), expected.get(i).sameAs(actual.get(i)));
+        }
+    }
+
+    @Test
+    public void insertedRows_matchTheAggregates() {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        dbHelper.insertGameInfoBatch(sampleRows());
+        assertEquals(0, dbHelper.checkStats());
+        assertEquals(3, dbHelper.getLeaderboard(10).size());
+        assertEquals(10, dbHelper.getUserStats("Tommy").getWins());
+    }
+
+    @Test
+    public void timeZoneChange_keepsTheDaysOfStoredWins() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Hong_Kong"));
+        List<GameInfo> rows = sampleRows();
+        dbHelper.insertGameInfoBatch(rows.subList(0, 15));
+        List<WinStats> days = dbHelper.getDailyStats(100);
+
+        // Later wins are counted in the new zone; earlier ones stay on their day
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+        assertEquals(0, dbHelper.checkStats());
+        assertSameStats(days, dbHelper.getDailyStats(100));
+        dbHelper.insertGameInfoBatch(rows.subList(15, rows.size()));
+        assertEquals(0, dbHelper.checkStats());
+    }
+
+    @Test
+    public void rebuild_givesTheSameTotals() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/London"));
+        dbHelper.insertGameInfoBatch(sampleRows());
+        List<WinStats> users = dbHelper.getLeaderboard(10);
+        List<WinStats> days = dbHelper.getDailyStats(100);
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Australia/Sydney"));
+        dbHelper.rebuildStats();
+        assertEquals(0, dbHelper.checkStats());
+        assertSameStats(users, dbHelper.getLeaderboard(10));
+        assertSameStats(days, dbHelper.getDailyStats(100));
+    }
+}
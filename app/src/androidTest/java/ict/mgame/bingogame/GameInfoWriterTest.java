@@ -0,0 +1,152 @@
+package ict.mgame.bingogame;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteException;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented tests for GameInfoWriter against a scratch database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GameInfoWriterTest {
+
+    // Scratch database file, deleted around every test
+    private static final String DATABASE_NAME = "game_info_writer_test.db";
+    // Username of rows the database always rejects
+    private static final String BAD_USER = "bad";
+
+    // DBHelper whose batch inserts fail on demand
+    private static class FlakyDBHelper extends DBHelper {
+        // Whole-batch failures still to come, guarded by this
+        int failuresLeft;
+        // Batch inserts attempted so far, guarded by this
+        int attempts;
+
+        FlakyDBHelper(Context context) {
+            super(context, DATABASE_NAME);
+        }
+
+        @Override
+        public synchronized void insertGameInfoBatch(List<GameInfo> batch) {
+            attempts++;
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new SQLiteException("Injected failure");
+            }
+            for (GameInfo gameInfo : batch) {
+                if (BAD_USER.equals(gameInfo.getUsername())) throw new SQLiteException("Bad row");
+            }
+            super.insertGameInfoBatch(batch);
+        }
+
+        synchronized int getAttempts() {
+            return attempts;
+        }
+    }
+
+    // Context of the app under test
+    private Context context;
+    // Database under the writer
+    private FlakyDBHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        dbHelper = new FlakyDBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    // A row for the given user and round
+    private static GameInfo row(String username, int round) {
+        return new GameInfo(username, round, null, 1700000000000L + round, round);
+    }
+
+    // Rows stored so far; reopens the database after close()
+    private int storedRows() {
+        try (Cursor cursor = dbHelper.getAllGameInfo()) {
+            return cursor.getCount();
+        }
+    }
+
+    @Test
+    public void flush_waitsForEveryQueuedBatch() throws InterruptedException {
+        GameInfoWriter writer = new GameInfoWriter(dbHelper);
+        // More than one batch
+        for (int round = 1; round <= 600; round++) {
+            writer.submit(row("Tommy", round));
+        }
+        assertTrue(writer.flush());
+        assertEquals(600, storedRows());
+        assertTrue(writer.close());
+    }
+
+    @Test
+    public void failedBatch_holdsBackTheQueueUntilItIsWritten() throws InterruptedException {
+        dbHelper.failuresLeft = 2;
+        GameInfoWriter writer = new GameInfoWriter(dbHelper, 2);
+        writer.submit(row("Tommy", 1));
+        while (dbHelper.getAttempts() == 0) {
+            Thread.sleep(1);
+        }
+        // The failed row is retried on its own, so the queue fills up behind it
+        assertTrue(writer.offer(row("Tommy", 2), 1, TimeUnit.SECONDS));
+        assertTrue(writer.offer(row("Tommy", 3), 1, TimeUnit.SECONDS));
+        assertFalse(writer.offer(row("Tommy", 4), 100, TimeUnit.MILLISECONDS));
+
+        // The third attempt succeeds and nothing is lost
+        assertTrue(writer.flush());
+        assertEquals(3, storedRows());
+        assertTrue(writer.close());
+    }
+
+    @Test
+    public void badRow_isSetAsideWithoutLosingTheOthers() throws InterruptedException {
+        GameInfoWriter writer = new GameInfoWriter(dbHelper);
+        writer.submit(row("Tommy", 1));
+        writer.submit(row(BAD_USER, 2));
+        writer.submit(row("Tommy", 3));
+        assertFalse(writer.flush());
+        assertEquals(2, storedRows());
+
+        // Rows after the bad one still go in
+        writer.submit(row("Tommy", 4));
+        writer.flush();
+        assertEquals(3, storedRows());
+        assertFalse(writer.close());
+    }
+
+    @Test
+    public void close_writesEverythingQueuedThenRejectsRows() throws InterruptedException {
+        GameInfoWriter writer = new GameInfoWriter(dbHelper);
+        for (int round = 1; round <= 300; round++) {
+            writer.submit(row("Tommy", round));
+        }
+        assertTrue(writer.close());
+        assertEquals(300, storedRows());
+        try {
+            writer.submit(row("Tommy", 301));
+            fail("submit() after close()");
+        } catch (IllegalStateException expected) {
+            // Closed
+        }
+    }
+}
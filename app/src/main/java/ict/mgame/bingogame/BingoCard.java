@@ -0,0 +1,396 @@
+package ict.mgame.bingogame;
+
+import java.util.Arrays;
+
+/**
+ * BingoCard class is the Android-free engine for a single 5x5 Bingo card.
+ * Cells are indexed row-major (cell = row * 5 + col) and marks are held as a 25-bit int,
+ * so marking a number and checking all 12 lines (5 rows, 5 columns, 2 diagonals)
+ * costs a table lookup and a few mask tests instead of nested loops.
+ * It is the packed specialization of BoardDefinition.BINGO_75; other variants use Board.
+ */
+public final class BingoCard {
+
+    // Card dimensions
+    public static final int SIZE = 5;
+    public static final int CELLS = SIZE * SIZE;
+    // Index of the FREE center cell
+    public static final int FREE_CELL = 2 * SIZE + 2;
+    // Highest number that can be drawn (numbers are 1-75)
+    public static final int MAX_NUMBER = 75;
+    // Number of winning lines: 5 rows, 5 columns and 2 diagonals
+    public static final int LINE_COUNT = 12;
+    // Bitmask with all 25 cells set
+    public static final int ALL_CELLS = (1 << CELLS) - 1;
+    // Size of a packed card in bytes: the low word plus the 32 used bits of the high word
+    public static final int PACKED_BYTES = 12;
+
+    // Cell masks for every line, in the order the win check reports them:
+    // rows 0-4, columns 5-9, main diagonal 10, anti-diagonal 11
+    private static final int[] LINE_MASKS = new int[LINE_COUNT];
+    // For every cell, a bitmask of the lines (bit = line index) passing through it
+    private static final int[] CELL_LINES = new int[CELLS];
+
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                int bit = 1 << (i * SIZE + j);
+                LINE_MASKS[i] |= bit;          // Row i
+                LINE_MASKS[SIZE + j] |= bit;   // Column j
+            }
+            LINE_MASKS[2 * SIZE] |= 1 << (i * SIZE + i);                 // Main diagonal
+            LINE_MASKS[2 * SIZE + 1] |= 1 << (i * SIZE + (SIZE - 1 - i)); // Anti-diagonal
+        }
+        for (int line = 0; line < LINE_COUNT; line++) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                if ((LINE_MASKS[line] & (1 << cell)) != 0) {
+                    CELL_LINES[cell] |= 1 << line;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cell mask of a line.
+     * @param line Line index (0-11)
+     * @return 25-bit mask of the line's cells
+     */
+    public static int lineMask(int line) {
+        return LINE_MASKS[line];
+    }
+
+    /**
+     * Returns the lines passing through a cell.
+     * @param cell Cell index (0-24)
+     * @return 12-bit mask of line indexes
+     */
+    public static int linesThrough(int cell) {
+        return CELL_LINES[cell];
+    }
+
+    // Numbers on the card by cell index (0 for the FREE center)
+    private final int[] numbers = new int[CELLS];
+    // Reverse index from number (1-75) to cell index, -1 when the number is not on the card
+    private final byte[] cellOfNumber = new byte[MAX_NUMBER + 1];
+    // Marked cells as a 25-bit mask (bit = cell index)
+    private int marks;
+    // Completed lines as a 12-bit mask (bit = line index), kept up to date by mark()
+    private int completedLines;
+
+    /**
+     * Creates a card from numbers laid out row-major; the center value is ignored (FREE).
+     * @param cellNumbers 25 numbers in cell order
+     */
+    public BingoCard(int[] cellNumbers) {
+        if (cellNumbers.length != CELLS) {
+            throw new IllegalArgumentException("A card needs " + CELLS + " cells");
+        }
+        Arrays.fill(cellOfNumber, (byte) -1);
+        for (int cell = 0; cell < CELLS; cell++) {
+            int number = cell == FREE_CELL ? 0 : cellNumbers[cell];
+            numbers[cell] = number;
+            if (number != 0) {
+                cellOfNumber[number] = (byte) cell;
+            }
+        }
+        resetMarks();
+    }
+
+    /**
+     * Generates a new card with random numbers in the standard column ranges
+     * (B:1-15, I:16-30, N:31-45, G:46-60, O:61-75) and a FREE center.
+     * @param rng Source of randomness
+     * @return New card with only the FREE center marked
+     */
+    public static BingoCard generate(BingoRng rng) {
+        int[] cells = new int[CELLS];
+        int[] column = new int[15];
+        for (int col = 0; col < SIZE; col++) {
+            // Partial Fisher-Yates over the 15 numbers of this column's range
+            int min = col * 15 + 1;
+            for (int k = 0; k < 15; k++) {
+                column[k] = min + k;
+            }
+            for (int row = 0; row < SIZE; row++) {
+                int pick = row + rng.nextInt(15 - row);
+                int tmp = column[row];
+                column[row] = column[pick];
+                column[pick] = tmp;
+                cells[row * SIZE + col] = column[row];
+            }
+        }
+        return new BingoCard(cells);
+    }
+
+    /**
+     * Generates a card straight into packed form, without allocating a BingoCard.
+     * Consumes the rng exactly like generate(), so both give the same card for the same state.
+     * @param rng Source of randomness
+     * @param dest Destination array; receives the low word at offset and the high word at offset + 1
+     * @param offset Index of the low word in dest
+     */
+    public static void generatePacked(BingoRng rng, long[] dest, int offset) {
+        long lo = 0;
+        long hi = 0;
+        int[] column = new int[15];
+        for (int col = 0; col < SIZE; col++) {
+            for (int k = 0; k < 15; k++) {
+                column[k] = k;
+            }
+            for (int row = 0; row < SIZE; row++) {
+                int pick = row + rng.nextInt(15 - row);
+                int tmp = column[row];
+                column[row] = column[pick];
+                column[pick] = tmp;
+                int cell = row * SIZE + col;
+                if (cell == FREE_CELL) continue;  // Drawn anyway to keep the rng in step with generate()
+                int slot = cell < FREE_CELL ? cell : cell - 1;
+                if (slot < 16) {
+                    lo |= (long) column[row] << (slot * 4);
+                } else {
+                    hi |= (long) column[row] << ((slot - 16) * 4);
+                }
+            }
+        }
+        dest[offset] = lo;
+        dest[offset + 1] = hi;
+    }
+
+    /**
+     * Returns the low word of the packed card.
+     * A packed card stores, for each of the 24 numbered cells in cell order, the number's
+     * offset within its column range (0-14) in 4 bits: slots 0-15 in the low word,
+     * slots 16-23 in the low 32 bits of the high word. The layout is preserved exactly.
+     * @return Packed slots 0-15
+     */
+    public long packedLow() {
+        long lo = 0;
+        for (int slot = 0; slot < 16; slot++) {
+            lo |= (long) columnOffset(slot < FREE_CELL ? slot : slot + 1) << (slot * 4);
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the high word of the packed card (see packedLow()).
+     * @return Packed slots 16-23
+     */
+    public long packedHigh() {
+        long hi = 0;
+        for (int slot = 16; slot < CELLS - 1; slot++) {
+            hi |= (long) columnOffset(slot + 1) << ((slot - 16) * 4);
+        }
+        return hi;
+    }
+
+    // Offset of a cell's number within its column range (0-14)
+    private int columnOffset(int cell) {
+        return numbers[cell] - (cell % SIZE) * 15 - 1;
+    }
+
+    /**
+     * Decodes the number at a cell of a packed card without allocating.
+     * @param lo Packed low word
+     * @param hi Packed high word
+     * @param cell Cell index (0-24)
+     * @return Number at the cell, 0 for the FREE center
+     */
+    public static int unpackNumber(long lo, long hi, int cell) {
+        if (cell == FREE_CELL) return 0;
+        int slot = cell < FREE_CELL ? cell : cell - 1;
+        long nibble = slot < 16 ? lo >>> (slot * 4) : hi >>> ((slot - 16) * 4);
+        return (cell % SIZE) * 15 + 1 + (int) (nibble & 0xF);
+    }
+
+    /**
+     * Formats the numbers of a set of cells of a packed card, e.g. "1,16,FREE,46,61".
+     * @param lo Packed low word
+     * @param hi Packed high word
+     * @param cellMask 25-bit mask of the cells to list, in cell order
+     * @return Comma-separated numbers, "FREE" for the center cell
+     */
+    public static String formatNumbers(long lo, long hi, int cellMask) {
+        StringBuilder sb = new StringBuilder(20);
+        int mask = cellMask;
+        while (mask != 0) {
+            int cell = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            if (cell == FREE_CELL) {
+                sb.append("FREE");
+            } else {
+                sb.append(unpackNumber(lo, hi, cell));
+            }
+            if (mask != 0) sb.append(",");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Encodes a packed card as PACKED_BYTES big-endian bytes (low word, then the high word's low 32 bits).
+     * @param lo Packed low word
+     * @param hi Packed high word
+     * @return Encoded card
+     */
+    public static byte[] packedToBytes(long lo, long hi) {
+        byte[] bytes = new byte[PACKED_BYTES];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (lo >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++) {
+            bytes[8 + i] = (byte) (hi >>> (24 - 8 * i));
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes the low word of a card encoded by packedToBytes().
+     * @param bytes Encoded card
+     * @return Packed low word
+     */
+    public static long packedLowFromBytes(byte[] bytes) {
+        long lo = 0;
+        for (int i = 0; i < 8; i++) {
+            lo = (lo << 8) | (bytes[i] & 0xFF);
+        }
+        return lo;
+    }
+
+    /**
+     * Decodes the high word of a card encoded by packedToBytes().
+     * @param bytes Encoded card
+     * @return Packed high word
+     */
+    public static long packedHighFromBytes(byte[] bytes) {
+        long hi = 0;
+        for (int i = 8; i < PACKED_BYTES; i++) {
+            hi = (hi << 8) | (bytes[i] & 0xFF);
+        }
+        return hi;
+    }
+
+    /**
+     * Rebuilds a card from its packed form.
+     * @param lo Packed low word
+     * @param hi Packed high word
+     * @return Card with only the FREE center marked
+     */
+    public static BingoCard unpack(long lo, long hi) {
+        int[] cells = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            cells[cell] = unpackNumber(lo, hi, cell);
+        }
+        return new BingoCard(cells);
+    }
+
+    /**
+     * Clears all marks except the FREE center.
+     */
+    public void resetMarks() {
+        marks = 1 << FREE_CELL;
+        completedLines = 0;
+    }
+
+    /**
+     * Restores saved marks at once, e.g. when resuming a game, and recomputes the completed lines.
+     * @param savedMarks 25-bit mask from getMarks(); the FREE center is always marked
+     */
+    public void restoreMarks(int savedMarks) {
+        marks = (savedMarks & ALL_CELLS) | (1 << FREE_CELL);
+        completedLines = 0;
+        for (int line = 0; line < LINE_COUNT; line++) {
+            if ((marks & LINE_MASKS[line]) == LINE_MASKS[line]) {
+                completedLines |= 1 << line;
+            }
+        }
+    }
+
+    /**
+     * Marks a drawn number on the card and updates the completed lines.
+     * Only the lines through the marked cell are re-checked.
+     * @param number Drawn number (1-75)
+     * @return Cell index that was marked, or -1 if the number is not on the card
+     */
+    public int mark(int number) {
+        if (number < 1 || number > MAX_NUMBER) return -1;
+        int cell = cellOfNumber[number];
+        if (cell < 0) return -1;
+        marks |= 1 << cell;
+        int lines = CELL_LINES[cell];
+        while (lines != 0) {
+            int line = Integer.numberOfTrailingZeros(lines);
+            lines &= lines - 1;
+            if ((marks & LINE_MASKS[line]) == LINE_MASKS[line]) {
+                completedLines |= 1 << line;
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Checks if there is a Bingo (full row, column, or diagonal).
+     * @return true if at least one line is complete
+     */
+    public boolean hasBingo() {
+        return completedLines != 0;
+    }
+
+    /**
+     * Returns the first completed line in row, column, diagonal, anti-diagonal order.
+     * @return Line index (0-11), or -1 if no line is complete
+     */
+    public int getWinningLine() {
+        return completedLines == 0 ? -1 : Integer.numberOfTrailingZeros(completedLines);
+    }
+
+    /**
+     * Builds the comma-separated numbers of the first winning line, with "FREE" for the center.
+     * @return Winning numbers such as "1,16,FREE,46,61", or "" if there is no Bingo
+     */
+    public String getWinningNumbers() {
+        int line = getWinningLine();
+        if (line < 0) return "";
+        StringBuilder sb = new StringBuilder(20);
+        int mask = LINE_MASKS[line];
+        while (mask != 0) {
+            int cell = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            if (cell == FREE_CELL) {
+                sb.append("FREE");
+            } else {
+                sb.append(numbers[cell]);
+            }
+            if (mask != 0) sb.append(",");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Finds the cell that holds a number.
+     * @param number Number to look up (1-75)
+     * @return Cell index, or -1 if the number is not on the card
+     */
+    public int cellOf(int number) {
+        if (number < 1 || number > MAX_NUMBER) return -1;
+        return cellOfNumber[number];
+    }
+
+    // Getter for the number at a cell (0 for the FREE center)
+    public int getNumber(int cell) {
+        return numbers[cell];
+    }
+
+    // Getter for whether a cell is marked
+    public boolean isMarked(int cell) {
+        return (marks & (1 << cell)) != 0;
+    }
+
+    // Getter for the 25-bit marks mask
+    public int getMarks() {
+        return marks;
+    }
+
+    // Getter for the 12-bit completed lines mask
+    public int getCompletedLines() {
+        return completedLines;
+    }
+}
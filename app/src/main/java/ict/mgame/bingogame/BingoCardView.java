@@ -0,0 +1,134 @@
+package ict.mgame.bingogame;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * BingoCardView class draws a whole 5x5 Bingo card on one Canvas, straight from a GameSnapshot.
+ * It replaces a tree of 5 row layouts and 25 TextViews: a new round only swaps the snapshot and
+ * redraws, and newly marked cells invalidate just their own rectangles.
+ */
+public class BingoCardView extends View {
+
+    // Labels for every number, built once so drawing never allocates
+    private static final String[] NUMBER_LABELS = new String[BingoCard.MAX_NUMBER + 1];
+
+    static {
+        for (int n = 1; n <= BingoCard.MAX_NUMBER; n++) {
+            NUMBER_LABELS[n] = String.valueOf(n);
+        }
+    }
+
+    // Snapshot being displayed, null before the first round
+    private GameSnapshot snapshot;
+    // Paints for cell backgrounds, borders and labels
+    private final Paint cellPaint = new Paint();
+    private final Paint borderPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    // Scratch rectangle for clip tests
+    private final Rect clip = new Rect();
+    // Size of one cell in pixels, set in onSizeChanged()
+    private float cellWidth, cellHeight;
+    // Preferred cell height in pixels when the layout leaves it open
+    private final int preferredCellHeight;
+
+    public BingoCardView(Context context) {
+        this(context, null);
+    }
+
+    public BingoCardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setColor(Color.LTGRAY);
+        borderPaint.setStrokeWidth(density);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 16,
+                getResources().getDisplayMetrics()));
+        preferredCellHeight = (int) (56 * density);
+    }
+
+    /**
+     * Shows a snapshot, with no inflation or layout pass: a new card redraws the whole view,
+     * the same card only the cells whose marks changed.
+     * @param snapshot Snapshot to draw
+     */
+    public void setSnapshot(GameSnapshot snapshot) {
+        GameSnapshot previous = this.snapshot;
+        this.snapshot = snapshot;
+        if (!snapshot.sameCard(previous)) {
+            invalidate();
+            return;
+        }
+        int changed = snapshot.getMarks() ^ previous.getMarks();
+        while (changed != 0) {
+            invalidateCell(Integer.numberOfTrailingZeros(changed));
+            changed &= changed - 1;
+        }
+    }
+
+    /**
+     * Redraws a single cell, e.g. after it has been marked.
+     * @param cell Cell index (0-24)
+     */
+    @SuppressWarnings("deprecation")  // Dirty rectangles still limit software-rendered redraws
+    private void invalidateCell(int cell) {
+        int left = (int) ((cell % BingoCard.SIZE) * cellWidth);
+        int top = (int) ((cell / BingoCard.SIZE) * cellHeight);
+        invalidate(left, top, (int) Math.ceil(left + cellWidth), (int) Math.ceil(top + cellHeight));
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = resolveSize(preferredCellHeight * BingoCard.SIZE, heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        cellWidth = w / (float) BingoCard.SIZE;
+        cellHeight = h / (float) BingoCard.SIZE;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (snapshot == null) return;
+        long start = Metrics.start();
+        canvas.getClipBounds(clip);
+        float baseline = (cellHeight - textPaint.ascent() - textPaint.descent()) / 2;
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            float left = (cell % BingoCard.SIZE) * cellWidth;
+            float top = (cell / BingoCard.SIZE) * cellHeight;
+            // Skip cells outside the dirty area
+            if (left >= clip.right || top >= clip.bottom || left + cellWidth <= clip.left || top + cellHeight <= clip.top) {
+                continue;
+            }
+            String label;
+            if (cell == BingoCard.FREE_CELL) {
+                // FREE center: always marked, shown in red on white
+                cellPaint.setColor(Color.WHITE);
+                textPaint.setColor(Color.RED);
+                label = "FREE";
+            } else if (snapshot.isMarked(cell)) {
+                cellPaint.setColor(Color.RED);
+                textPaint.setColor(Color.BLACK);
+                label = "X";
+            } else {
+                cellPaint.setColor(Color.WHITE);
+                textPaint.setColor(Color.BLACK);
+                label = NUMBER_LABELS[snapshot.getNumber(cell)];
+            }
+            canvas.drawRect(left, top, left + cellWidth, top + cellHeight, cellPaint);
+            canvas.drawRect(left, top, left + cellWidth, top + cellHeight, borderPaint);
+            canvas.drawText(label, left + cellWidth / 2, top + baseline, textPaint);
+        }
+        Metrics.RENDER.recordSince(start);
+    }
+}
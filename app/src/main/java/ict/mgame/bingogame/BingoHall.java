@@ -0,0 +1,296 @@
+package ict.mgame.bingogame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BingoHall class plays many Bingo cards against a single caller.
+ * It keeps an inverted index from each number (1-75) to the card cells holding it,
+ * and per-card line hit counters, so a draw only touches the cards containing the
+ * drawn number: O(hits) instead of O(cards x 25).
+ * With an active PatternSet it also tracks each card's marks and reports the side patterns
+ * (four corners, X, ...) each draw completes; the winners above stay the line winners.
+ */
+public final class BingoHall {
+
+    // Initial capacity of each number's postings list
+    private static final int INITIAL_POSTINGS = 16;
+    // Posting entries pack the card id and the cell index: (card << CELL_BITS) | cell
+    private static final int CELL_BITS = 5;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
+    // Line hit counters of an unplayed card: 1 for every line through the FREE center
+    private static final byte[] FRESH_LINE_HITS = new byte[BingoCard.LINE_COUNT];
+
+    static {
+        int lines = BingoCard.linesThrough(BingoCard.FREE_CELL);
+        while (lines != 0) {
+            FRESH_LINE_HITS[Integer.numberOfTrailingZeros(lines)] = 1;
+            lines &= lines - 1;
+        }
+    }
+
+    // Registered cards, by card id
+    private final List<BingoCard> cards = new ArrayList<>();
+    // Postings per number: packed (card, cell) entries, and how many are used
+    private final int[][] postings = new int[BingoCard.MAX_NUMBER + 1][];
+    private final int[] postingCounts = new int[BingoCard.MAX_NUMBER + 1];
+    // Marked cells on each line, LINE_COUNT counters per card
+    private byte[] lineHits = new byte[0];
+    // Winning line per card, -1 while the card has not won
+    private int[] winningLines = new int[0];
+    // Numbers already drawn in the current game
+    private final boolean[] drawn = new boolean[BingoCard.MAX_NUMBER + 1];
+    // Card ids that won on the last draw, and how many
+    private int[] newWinners = new int[16];
+    private int newWinnerCount;
+    // Total cards that have won in the current game
+    private int winnerCount;
+    // Active patterns, or null to track lines only
+    private final PatternSet patterns;
+    // Patterns complete before any draw (those lying on the FREE center alone)
+    private final long freshPatterns;
+    // Marked cells and completed patterns per card, kept only with active patterns
+    private int[] marks = new int[0];
+    private long[] completedPatterns = new long[0];
+    // Cards that completed patterns on the last draw, the patterns each completed, and how many
+    private int[] patternCards = new int[16];
+    private long[] patternBits = new long[16];
+    private int patternCardCount;
+
+    /**
+     * Constructor for an empty hall that tracks lines only.
+     */
+    public BingoHall() {
+        this(null);
+    }
+
+    /**
+     * Constructor for an empty hall.
+     * @param patterns Active patterns to report as cards complete them, or null for none
+     */
+    public BingoHall(PatternSet patterns) {
+        this.patterns = patterns;
+        this.freshPatterns = patterns != null ? patterns.evaluateAll(1 << BingoCard.FREE_CELL) : 0;
+        for (int n = 1; n <= BingoCard.MAX_NUMBER; n++) {
+            postings[n] = new int[INITIAL_POSTINGS];
+        }
+    }
+
+    /**
+     * Registers a card and indexes its numbers.
+     * @param card Card to register; its own marks are not used or changed
+     * @return Card id (registration order, starting at 0)
+     */
+    public int addCard(BingoCard card) {
+        int id = cards.size();
+        cards.add(card);
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            int number = card.getNumber(cell);
+            if (number == 0) continue;  // FREE center
+            int count = postingCounts[number];
+            if (count == postings[number].length) {
+                postings[number] = Arrays.copyOf(postings[number], count * 2);
+            }
+            postings[number][count] = (id << CELL_BITS) | cell;
+            postingCounts[number] = count + 1;
+        }
+        ensureCapacity(id + 1);
+        System.arraycopy(FRESH_LINE_HITS, 0, lineHits, id * BingoCard.LINE_COUNT, BingoCard.LINE_COUNT);
+        winningLines[id] = -1;
+        if (patterns != null) {
+            marks[id] = 1 << BingoCard.FREE_CELL;
+            completedPatterns[id] = freshPatterns;
+        }
+        return id;
+    }
+
+    /**
+     * Generates and registers cards using the standard column ranges and FREE center.
+     * @param count Number of cards to add
+     * @param rng Source of randomness
+     */
+    public void addRandomCards(int count, BingoRng rng) {
+        for (int i = 0; i < count; i++) {
+            addCard(BingoCard.generate(rng));
+        }
+    }
+
+    /**
+     * Starts a new game with the same cards: clears all counters, winners and drawn numbers.
+     */
+    public void reset() {
+        for (int id = 0; id < cards.size(); id++) {
+            System.arraycopy(FRESH_LINE_HITS, 0, lineHits, id * BingoCard.LINE_COUNT, BingoCard.LINE_COUNT);
+        }
+        Arrays.fill(winningLines, 0, cards.size(), -1);
+        if (patterns != null) {
+            Arrays.fill(marks, 0, cards.size(), 1 << BingoCard.FREE_CELL);
+            Arrays.fill(completedPatterns, 0, cards.size(), freshPatterns);
+        }
+        Arrays.fill(drawn, false);
+        newWinnerCount = 0;
+        patternCardCount = 0;
+        winnerCount = 0;
+    }
+
+    /**
+     * Removes all cards so the hall can be refilled for an unrelated game.
+     */
+    public void clear() {
+        cards.clear();
+        Arrays.fill(postingCounts, 0);
+        reset();
+    }
+
+    /**
+     * Applies a drawn number to every card holding it and collects the cards that won on it,
+     * and with active patterns the cards that completed patterns on it (see getPatternCard()).
+     * Repeated or out-of-range numbers are ignored.
+     * @param number Drawn number (1-75)
+     * @return Number of cards that won on this draw; read them with getNewWinner()
+     */
+    public int draw(int number) {
+        newWinnerCount = 0;
+        patternCardCount = 0;
+        if (number < 1 || number > BingoCard.MAX_NUMBER || drawn[number]) return 0;
+        drawn[number] = true;
+
+        int[] list = postings[number];
+        int count = postingCounts[number];
+        for (int p = 0; p < count; p++) {
+            int id = list[p] >>> CELL_BITS;
+            int base = id * BingoCard.LINE_COUNT;
+            int cell = list[p] & CELL_MASK;
+            int lines = BingoCard.linesThrough(cell);
+            int completed = -1;
+            while (lines != 0) {
+                int line = Integer.numberOfTrailingZeros(lines);
+                lines &= lines - 1;
+                if (++lineHits[base + line] == BingoCard.SIZE && completed < 0) {
+                    completed = line;
+                }
+            }
+            if (completed >= 0 && winningLines[id] < 0) {
+                winningLines[id] = completed;
+                addNewWinner(id);
+            }
+            if (patterns != null) {
+                marks[id] |= 1 << cell;
+                long fresh = patterns.evaluate(marks[id], cell, completedPatterns[id]);
+                if (fresh != 0) {
+                    completedPatterns[id] |= fresh;
+                    addPatternCard(id, fresh);
+                }
+            }
+        }
+        return newWinnerCount;
+    }
+
+    // Records the patterns a card completed on the current draw
+    private void addPatternCard(int id, long bits) {
+        if (patternCardCount == patternCards.length) {
+            patternCards = Arrays.copyOf(patternCards, patternCardCount * 2);
+            patternBits = Arrays.copyOf(patternBits, patternCardCount * 2);
+        }
+        patternCards[patternCardCount] = id;
+        patternBits[patternCardCount++] = bits;
+    }
+
+    // Appends a card id to the winners of the current draw
+    private void addNewWinner(int id) {
+        if (newWinnerCount == newWinners.length) {
+            newWinners = Arrays.copyOf(newWinners, newWinnerCount * 2);
+        }
+        newWinners[newWinnerCount++] = id;
+        winnerCount++;
+    }
+
+    // Grows the per-card arrays to hold at least the given number of cards
+    private void ensureCapacity(int cardCount) {
+        if (winningLines.length >= cardCount) return;
+        int capacity = Math.max(cardCount, winningLines.length * 2);
+        lineHits = Arrays.copyOf(lineHits, capacity * BingoCard.LINE_COUNT);
+        winningLines = Arrays.copyOf(winningLines, capacity);
+        if (patterns != null) {
+            marks = Arrays.copyOf(marks, capacity);
+            completedPatterns = Arrays.copyOf(completedPatterns, capacity);
+        }
+    }
+
+    /**
+     * Returns a card that won on the last draw.
+     * @param index Index below the value returned by draw()
+     * @return Card id
+     */
+    public int getNewWinner(int index) {
+        if (index >= newWinnerCount) throw new IndexOutOfBoundsException("index " + index);
+        return newWinners[index];
+    }
+
+    /**
+     * Returns the first line a card completed, in BingoCard line order.
+     * @param id Card id
+     * @return Line index (0-11), or -1 if the card has not won
+     */
+    public int getWinningLine(int id) {
+        if (id >= cards.size()) throw new IndexOutOfBoundsException("card " + id);
+        return winningLines[id];
+    }
+
+    // Getter for the number of cards that completed patterns on the last draw
+    public int getPatternCardCount() {
+        return patternCardCount;
+    }
+
+    /**
+     * Returns a card that completed patterns on the last draw.
+     * @param index Index below getPatternCardCount()
+     * @return Card id
+     */
+    public int getPatternCard(int index) {
+        if (index >= patternCardCount) throw new IndexOutOfBoundsException("index " + index);
+        return patternCards[index];
+    }
+
+    /**
+     * Returns the patterns a card completed on the last draw.
+     * @param index Index below getPatternCardCount()
+     * @return PatternSet bits
+     */
+    public long getPatternBits(int index) {
+        if (index >= patternCardCount) throw new IndexOutOfBoundsException("index " + index);
+        return patternBits[index];
+    }
+
+    /**
+     * Returns every active pattern a card has completed in the current game.
+     * @param id Card id
+     * @return PatternSet bits, 0 without active patterns
+     */
+    public long getCompletedPatterns(int id) {
+        if (id >= cards.size()) throw new IndexOutOfBoundsException("card " + id);
+        return patterns != null ? completedPatterns[id] : 0;
+    }
+
+    // Getter for the active patterns, null if none
+    public PatternSet getPatterns() {
+        return patterns;
+    }
+
+    // Getter for a registered card
+    public BingoCard getCard(int id) {
+        return cards.get(id);
+    }
+
+    // Getter for the number of registered cards
+    public int getCardCount() {
+        return cards.size();
+    }
+
+    // Getter for the number of cards that have won in the current game
+    public int getWinnerCount() {
+        return winnerCount;
+    }
+}
@@ -0,0 +1,33 @@
+package ict.mgame.bingogame;
+
+/**
+ * BingoRng interface is the pluggable random source used by the game engine.
+ * Implementations must be deterministic for a given seed so rounds can be replayed.
+ */
+public interface BingoRng {
+
+    /**
+     * Returns the next 64 random bits.
+     * @return Random long
+     */
+    long nextLong();
+
+    /**
+     * Returns an unbiased random int in [0, bound) using Lemire's multiply-and-reject method.
+     * @param bound Exclusive upper bound, must be positive
+     * @return Random int in range
+     */
+    default int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xffffffffL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xffffffffL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+}
@@ -0,0 +1,91 @@
+package ict.mgame.bingogame;
+
+/**
+ * BingoRound class ties a card and a draw order to a single 64-bit seed.
+ * The card is generated first and the deck shuffled second from the same SplitMixRng,
+ * so storing the seed is enough to rebuild the whole round later.
+ */
+public final class BingoRound {
+
+    // Seed value reserved for rounds that were not recorded with a seed
+    public static final long NO_SEED = 0L;
+
+    // Seed the round was built from
+    private final long seed;
+    // Card dealt for the round
+    private final BingoCard card;
+    // Deck with the round's draw order
+    private final DrawDeck deck;
+
+    /**
+     * Constructor, use create() or replay().
+     */
+    private BingoRound(long seed, BingoCard card, DrawDeck deck) {
+        this.seed = seed;
+        this.card = card;
+        this.deck = deck;
+    }
+
+    /**
+     * Builds a round from a seed: the card, then the shuffled deck.
+     * @param seed Round seed
+     * @return Round with no numbers drawn yet
+     */
+    public static BingoRound create(long seed) {
+        BingoRng rng = new SplitMixRng(seed);
+        BingoCard card = BingoCard.generate(rng);
+        DrawDeck deck = new DrawDeck();
+        deck.shuffle(rng);
+        return new BingoRound(seed, card, deck);
+    }
+
+    /**
+     * Picks a fresh seed for a new round; never returns NO_SEED.
+     * @param rng Random source for seeds
+     * @return New seed
+     */
+    public static long newSeed(BingoRng rng) {
+        long seed;
+        do {
+            seed = rng.nextLong();
+        } while (seed == NO_SEED);
+        return seed;
+    }
+
+    /**
+     * Rebuilds a round from its seed and plays it up to its first Bingo.
+     * @param seed Round seed
+     * @return Round with its card marked at the first Bingo (or with the deck exhausted)
+     */
+    public static BingoRound replay(long seed) {
+        BingoRound round = create(seed);
+        round.playToBingo();
+        return round;
+    }
+
+    /**
+     * Draws numbers until the card has a Bingo or the deck is empty.
+     * @return Number of draws that produced the Bingo, or -1 if there was none
+     */
+    public int playToBingo() {
+        while (!card.hasBingo() && !deck.isEmpty()) {
+            card.mark(deck.draw());
+        }
+        return card.hasBingo() ? deck.drawnCount() : -1;
+    }
+
+    // Getter for the round seed
+    public long getSeed() {
+        return seed;
+    }
+
+    // Getter for the round's card
+    public BingoCard getCard() {
+        return card;
+    }
+
+    // Getter for the round's deck
+    public DrawDeck getDeck() {
+        return deck;
+    }
+}
@@ -0,0 +1,226 @@
+package ict.mgame.bingogame;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * BingoSimulator class plays full Bingo games headlessly across all cores (Monte Carlo).
+ * Each game deals a fresh hall of cards and draws all 75 numbers (or until every card has won),
+ * collecting the draws-to-first-bingo distribution, winning line frequencies and the
+ * expected number of new winners per draw. Games are split into fixed blocks whose random
+ * streams depend only on the seed and block index, so results do not depend on thread count.
+ */
+public final class BingoSimulator {
+
+    // Games per block; each block is one fork/join task with its own random stream
+    private static final int BLOCK_SIZE = 1024;
+
+    // Total games to play
+    private final long games;
+    // Cards dealt per game
+    private final int hallSize;
+    // Master seed for all random streams
+    private final long seed;
+
+    /**
+     * Constructor for BingoSimulator.
+     * @param games Number of games to play
+     * @param hallSize Cards per game (1 for a single-card game)
+     * @param seed Master seed; the same seed always gives the same result
+     */
+    public BingoSimulator(long games, int hallSize, long seed) {
+        if (games < 1 || hallSize < 1) {
+            throw new IllegalArgumentException("games and hallSize must be positive");
+        }
+        this.games = games;
+        this.hallSize = hallSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs all games on a fork/join pool.
+     * @param threads Worker threads to use
+     * @return Aggregated result
+     */
+    public Result run(int threads) throws InterruptedException {
+        long blocks = (games + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> IntStream.range(0, (int) blocks)
+                    .parallel()
+                    .mapToObj(this::runBlock)
+                    .reduce(Result::merge)
+                    .orElseGet(() -> new Result(hallSize))).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one block of games with the block's own random stream.
+     * @param block Block index
+     * @return Result of this block
+     */
+    private Result runBlock(int block) {
+        // Mixing the seed first keeps seed s, block b + 1 from repeating seed s + 1, block b
+        BingoRng rng = new SplitMixRng(SplitMixRng.mix(SplitMixRng.mix(seed) + block));
+        Result result = new Result(hallSize);
+        BingoHall hall = new BingoHall();
+        DrawDeck deck = new DrawDeck();
+        long first = (long) block * BLOCK_SIZE;
+        long last = Math.min(games, first + BLOCK_SIZE);
+        for (long g = first; g < last; g++) {
+            hall.clear();
+            hall.addRandomCards(hallSize, rng);
+            deck.shuffle(rng);
+            playGame(hall, deck, result);
+        }
+        return result;
+    }
+
+    /**
+     * Plays one game and adds its statistics to the result.
+     * @param hall Hall with freshly dealt cards
+     * @param deck Shuffled deck
+     * @param result Result to update
+     */
+    private static void playGame(BingoHall hall, DrawDeck deck, Result result) {
+        boolean firstBingo = false;
+        while (!deck.isEmpty() && hall.getWinnerCount() < hall.getCardCount()) {
+            int winners = hall.draw(deck.draw());
+            if (winners == 0) continue;
+            int draw = deck.drawnCount();
+            result.winnersPerDraw[draw] += winners;
+            if (!firstBingo) {
+                firstBingo = true;
+                result.drawsToFirstBingo[draw]++;
+                result.firstBingoWinners += winners;
+                for (int i = 0; i < winners; i++) {
+                    result.winningLines[hall.getWinningLine(hall.getNewWinner(i))]++;
+                }
+            }
+        }
+        result.games++;
+    }
+
+    /**
+     * Result class holds the aggregated statistics of a simulation run.
+     * Arrays indexed by draw use the 1-based draw number (index 0 is unused).
+     */
+    public static final class Result {
+        // Cards dealt per game
+        final int hallSize;
+        // Games played
+        long games;
+        // Games whose first bingo came on each draw
+        final long[] drawsToFirstBingo = new long[BingoCard.MAX_NUMBER + 1];
+        // Cards that won on each draw, summed over all games
+        final long[] winnersPerDraw = new long[BingoCard.MAX_NUMBER + 1];
+        // Winning line of every card that won on a game's first bingo draw
+        final long[] winningLines = new long[BingoCard.LINE_COUNT];
+        // Cards sharing the first bingo, summed over all games
+        long firstBingoWinners;
+
+        Result(int hallSize) {
+            this.hallSize = hallSize;
+        }
+
+        // Adds another result into this one and returns this
+        Result merge(Result other) {
+            games += other.games;
+            firstBingoWinners += other.firstBingoWinners;
+            for (int d = 0; d <= BingoCard.MAX_NUMBER; d++) {
+                drawsToFirstBingo[d] += other.drawsToFirstBingo[d];
+                winnersPerDraw[d] += other.winnersPerDraw[d];
+            }
+            for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+                winningLines[line] += other.winningLines[line];
+            }
+            return this;
+        }
+
+        // Getter for the number of games played
+        public long getGames() {
+            return games;
+        }
+
+        // Getter for the number of games whose first bingo came on a draw (1-75)
+        public long getFirstBingoCount(int draw) {
+            return drawsToFirstBingo[draw];
+        }
+
+        // Getter for the expected number of new winners on a draw (1-75)
+        public double getExpectedWinners(int draw) {
+            return games == 0 ? 0 : (double) winnersPerDraw[draw] / games;
+        }
+
+        // Getter for how often a line (0-11) was a first-bingo winning line
+        public long getLineWins(int line) {
+            return winningLines[line];
+        }
+
+        /**
+         * Writes the result as CSV sections: summary, per-draw table and per-line table.
+         * @param out Destination writer; not closed
+         */
+        public void writeCsv(Writer out) throws IOException {
+            long weightedDraws = 0;
+            for (int d = 1; d <= BingoCard.MAX_NUMBER; d++) {
+                weightedDraws += d * drawsToFirstBingo[d];
+            }
+            out.write("games,hall_size,mean_draws_to_first_bingo,mean_first_bingo_winners\n");
+            out.write(String.format(Locale.ROOT, "%d,%d,%.6f,%.6f%n%n", games, hallSize,
+                    games == 0 ? 0 : (double) weightedDraws / games,
+                    games == 0 ? 0 : (double) firstBingoWinners / games));
+
+            out.write("draw,first_bingo_games,first_bingo_probability,expected_new_winners\n");
+            for (int d = 1; d <= BingoCard.MAX_NUMBER; d++) {
+                out.write(String.format(Locale.ROOT, "%d,%d,%.8f,%.8f%n", d, drawsToFirstBingo[d],
+                        games == 0 ? 0 : (double) drawsToFirstBingo[d] / games, getExpectedWinners(d)));
+            }
+            out.write("\nline,first_bingo_wins\n");
+            for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+                out.write(line + "," + winningLines[line] + "\n");
+            }
+        }
+    }
+
+    /**
+     * Command-line entry point.
+     * Usage: BingoSimulator games hallSize seed outputFile [threads]
+     * @param args Command-line arguments
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: BingoSimulator <games> <hallSize> <seed> <outputFile> [threads]");
+            System.exit(2);
+        }
+        long games = Long.parseLong(args[0]);
+        int hallSize = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+        String output = args[3];
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        Result result = new BingoSimulator(games, hallSize, seed).run(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // java.io rather than java.nio.file, which needs API 26
+        try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(output), StandardCharsets.UTF_8))) {
+            result.writeCsv(out);
+        }
+        System.out.printf(Locale.ROOT, "%d games x %d cards on %d threads in %.2fs (%.0f games/s) -> %s%n",
+                games, hallSize, threads, seconds, games / seconds, output);
+    }
+}
@@ -0,0 +1,245 @@
+package ict.mgame.bingogame;
+
+import java.util.Arrays;
+
+/**
+ * Board class is one card of any BoardDefinition, with incremental win detection.
+ * Each line keeps a hit counter; marking a number bumps only the counters of the lines through
+ * its cell, so a draw costs O(lines through one cell) whatever the board size. A reverse index
+ * from number to cell makes the lookup O(1).
+ *
+ * BingoCard remains the packed, bitmask specialization of BoardDefinition.BINGO_75 used by the
+ * game, the history and the server; for that definition both generate the same card from the
+ * same random state and report the same winning line.
+ */
+public final class Board {
+
+    // Variant this board belongs to
+    private final BoardDefinition definition;
+    // Number at each cell, 0 for free and blank cells
+    private final int[] numbers;
+    // Reverse index from number to cell, -1 when the number is not on the board
+    private final int[] cellOfNumber;
+    // Marked cells (free cells included)
+    private final boolean[] marked;
+    // Marked cells per line
+    private final int[] lineHits;
+    // Cells that count toward each line: its cells minus blanks
+    private final int[] lineTargets;
+    // Hits of each line on a fresh board: its free cells
+    private final int[] freshHits;
+    // Completed lines, and the lowest completed line index (-1 if none)
+    private int completedCount;
+    private int lowestCompleted;
+    // Numbers on the board, and how many are marked
+    private final int numberCount;
+    private int markedNumbers;
+
+    /**
+     * Creates a board from numbers laid out row-major.
+     * @param definition Variant
+     * @param cellNumbers Number of each cell, 0 for blank cells; ignored for free cells
+     * @throws IllegalArgumentException if a number repeats or lies outside its column's range
+     */
+    public Board(BoardDefinition definition, int[] cellNumbers) {
+        int cells = definition.getCellCount();
+        if (cellNumbers.length != cells) {
+            throw new IllegalArgumentException("A " + definition.getName() + " board needs " + cells + " cells");
+        }
+        this.definition = definition;
+        this.numbers = new int[cells];
+        this.cellOfNumber = new int[definition.getMaxNumber() + 1];
+        Arrays.fill(cellOfNumber, -1);
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int number = definition.isFree(cell) ? 0 : cellNumbers[cell];
+            if (number == 0) continue;
+            int col = cell % definition.getCols();
+            if (number < definition.getColumnLow(col) || number > definition.getColumnHigh(col)) {
+                throw new IllegalArgumentException(number + " is outside column " + col);
+            }
+            if (cellOfNumber[number] >= 0) throw new IllegalArgumentException(number + " appears twice");
+            numbers[cell] = number;
+            cellOfNumber[number] = cell;
+            count++;
+        }
+        this.numberCount = count;
+        this.marked = new boolean[cells];
+
+        int lineCount = definition.getLineCount();
+        this.lineHits = new int[lineCount];
+        this.lineTargets = new int[lineCount];
+        this.freshHits = new int[lineCount];
+        for (int line = 0; line < lineCount; line++) {
+            for (int cell : definition.getLine(line)) {
+                if (definition.isFree(cell)) {
+                    freshHits[line]++;
+                    lineTargets[line]++;
+                } else if (numbers[cell] != 0) {
+                    lineTargets[line]++;
+                }
+            }
+        }
+        resetMarks();
+    }
+
+    /**
+     * Generates a random board. Each column's numbers are a partial Fisher-Yates shuffle of its
+     * range; on a full grid free cells also consume a pick, exactly as BingoCard.generate() does.
+     * On a ticket with blanks, each row gets numbersPerRow random columns, redrawn until every
+     * column has at least one number.
+     * @param definition Variant
+     * @param rng Source of randomness
+     * @return New board with only the free cells marked
+     */
+    public static Board generate(BoardDefinition definition, BingoRng rng) {
+        int rows = definition.getRows();
+        int cols = definition.getCols();
+        boolean[] numbered = new boolean[rows * cols];
+        if (definition.getNumbersPerRow() == cols) {
+            Arrays.fill(numbered, true);
+        } else {
+            chooseNumberedCells(definition, rng, numbered);
+        }
+
+        int[] cells = new int[rows * cols];
+        int[] column = new int[0];
+        for (int col = 0; col < cols; col++) {
+            int low = definition.getColumnLow(col);
+            int range = definition.getColumnHigh(col) - low + 1;
+            if (column.length < range) column = new int[range];
+            for (int k = 0; k < range; k++) {
+                column[k] = low + k;
+            }
+            int picked = 0;
+            for (int row = 0; row < rows; row++) {
+                int cell = row * cols + col;
+                if (!numbered[cell]) continue;
+                int pick = picked + rng.nextInt(range - picked);
+                int tmp = column[picked];
+                column[picked] = column[pick];
+                column[pick] = tmp;
+                cells[cell] = column[picked++];
+            }
+        }
+        return new Board(definition, cells);
+    }
+
+    // Picks numbersPerRow cells in every row so that no column is left empty
+    private static void chooseNumberedCells(BoardDefinition definition, BingoRng rng, boolean[] numbered) {
+        int rows = definition.getRows();
+        int cols = definition.getCols();
+        int[] order = new int[cols];
+        boolean allColumns;
+        do {
+            Arrays.fill(numbered, false);
+            for (int row = 0; row < rows; row++) {
+                for (int c = 0; c < cols; c++) {
+                    order[c] = c;
+                }
+                for (int k = 0; k < definition.getNumbersPerRow(); k++) {
+                    int pick = k + rng.nextInt(cols - k);
+                    int tmp = order[k];
+                    order[k] = order[pick];
+                    order[pick] = tmp;
+                    numbered[row * cols + order[k]] = true;
+                }
+            }
+            allColumns = true;
+            for (int c = 0; c < cols && allColumns; c++) {
+                boolean any = false;
+                for (int row = 0; row < rows; row++) {
+                    any |= numbered[row * cols + c];
+                }
+                allColumns = any;
+            }
+        } while (!allColumns && (long) rows * definition.getNumbersPerRow() >= cols);
+    }
+
+    /**
+     * Clears all marks except the free cells.
+     */
+    public void resetMarks() {
+        for (int cell = 0; cell < marked.length; cell++) {
+            marked[cell] = definition.isFree(cell);
+        }
+        System.arraycopy(freshHits, 0, lineHits, 0, lineHits.length);
+        completedCount = 0;
+        lowestCompleted = -1;
+        for (int line = 0; line < lineHits.length; line++) {
+            if (lineTargets[line] > 0 && lineHits[line] == lineTargets[line]) completeLine(line);
+        }
+        markedNumbers = 0;
+    }
+
+    /**
+     * Marks a drawn number and updates the counters of the lines through its cell.
+     * @param number Drawn number
+     * @return Cell index that was marked, or -1 if the number is not on the board or already marked
+     */
+    public int mark(int number) {
+        if (number < 1 || number >= cellOfNumber.length) return -1;
+        int cell = cellOfNumber[number];
+        if (cell < 0 || marked[cell]) return -1;
+        marked[cell] = true;
+        markedNumbers++;
+        for (int line : definition.getLinesThrough(cell)) {
+            if (++lineHits[line] == lineTargets[line]) completeLine(line);
+        }
+        return cell;
+    }
+
+    // Records a newly completed line
+    private void completeLine(int line) {
+        completedCount++;
+        if (lowestCompleted < 0 || line < lowestCompleted) lowestCompleted = line;
+    }
+
+    // Getter for whether enough lines are complete to win
+    public boolean hasBingo() {
+        return completedCount >= definition.getLinesToWin();
+    }
+
+    // Getter for whether every number on the board is marked
+    public boolean isFullHouse() {
+        return markedNumbers == numberCount;
+    }
+
+    /**
+     * Returns the lowest-index completed line, as BingoCard.getWinningLine() does.
+     * @return Line index, or -1 if no line is complete
+     */
+    public int getWinningLine() {
+        return lowestCompleted;
+    }
+
+    // Getter for the number of completed lines
+    public int getCompletedLineCount() {
+        return completedCount;
+    }
+
+    // Getter for the marked cells on a line
+    public int getLineHits(int line) {
+        return lineHits[line];
+    }
+
+    // Getter for the number at a cell (0 for free and blank cells)
+    public int getNumber(int cell) {
+        return numbers[cell];
+    }
+
+    // Getter for whether a cell is marked
+    public boolean isMarked(int cell) {
+        return marked[cell];
+    }
+
+    // Getter for the number of numbers on the board
+    public int getNumberCount() {
+        return numberCount;
+    }
+
+    // Getter for the definition
+    public BoardDefinition getDefinition() {
+        return definition;
+    }
+}
@@ -0,0 +1,265 @@
+package ict.mgame.bingogame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BoardDefinition class describes one bingo variant: an N x M grid, the number range of each
+ * column, the free cells, how many numbers each row holds, and the lines that win.
+ * It is immutable and shared by every Board of the variant; per-cell line lists are computed
+ * once here so a Board only touches the lines through the drawn number's cell.
+ *
+ * Cells are numbered row-major (cell = row * cols + col), and lines are reported by index in
+ * the order given, so the 75-ball configuration has exactly BingoCard's cells and lines.
+ */
+public final class BoardDefinition {
+
+    // Classic 75-ball: 5x5, columns B-I-N-G-O of 15 numbers, FREE center, rows, columns and diagonals
+    public static final BoardDefinition BINGO_75 = grid("75-ball", BingoCard.SIZE, BingoCard.SIZE,
+            BingoCard.MAX_NUMBER, new int[] {BingoCard.FREE_CELL}, true);
+    // 80-ball: 4x4, columns of 20 numbers, no free cell, rows, columns and diagonals
+    public static final BoardDefinition BINGO_80 = grid("80-ball", 4, 4, 80, new int[0], true);
+    // 90-ball ticket: 3x9, 5 numbers per row, columns 1-9, 10-19, ..., 80-90; each row is a line
+    public static final BoardDefinition BINGO_90 = new BoardDefinition("90-ball", 3, 9,
+            new int[] {1, 10, 20, 30, 40, 50, 60, 70, 80},
+            new int[] {9, 19, 29, 39, 49, 59, 69, 79, 90},
+            5, new int[0], standardLines(3, 9, false, false), 1);
+
+    // Display name
+    private final String name;
+    // Grid size
+    private final int rows, cols;
+    // Inclusive number range of each column
+    private final int[] columnLow, columnHigh;
+    // Highest number in any column
+    private final int maxNumber;
+    // Cells holding a number per row; below cols the rest of the row is blank
+    private final int numbersPerRow;
+    // Free cells, marked from the start
+    private final boolean[] free;
+    // Cells of each line, and for each cell the lines through it
+    private final int[][] lines;
+    private final int[][] cellLines;
+    // Completed lines needed to win
+    private final int linesToWin;
+
+    /**
+     * Constructor for a board definition.
+     * @param name Display name
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param columnLow Lowest number of each column
+     * @param columnHigh Highest number of each column
+     * @param numbersPerRow Numbered cells per row; cols for a full grid, fewer for tickets with blanks
+     * @param freeCells Cells that are free (full grids only)
+     * @param lines Cells of each winning line, in reporting order
+     * @param linesToWin Completed lines needed to win
+     * @throws IllegalArgumentException if the definition is inconsistent
+     */
+    public BoardDefinition(String name, int rows, int cols, int[] columnLow, int[] columnHigh,
+                           int numbersPerRow, int[] freeCells, int[][] lines, int linesToWin) {
+        if (rows < 1 || cols < 1 || columnLow.length != cols || columnHigh.length != cols) {
+            throw new IllegalArgumentException("Bad grid size");
+        }
+        if (numbersPerRow < 1 || numbersPerRow > cols || (numbersPerRow < cols && freeCells.length > 0)) {
+            throw new IllegalArgumentException("Bad numbers per row: " + numbersPerRow);
+        }
+        if (lines.length == 0 || linesToWin < 1 || linesToWin > lines.length) {
+            throw new IllegalArgumentException("Bad lines");
+        }
+        int max = 0;
+        for (int c = 0; c < cols; c++) {
+            if (columnLow[c] < 1 || columnHigh[c] - columnLow[c] + 1 < rows) {
+                throw new IllegalArgumentException("Column " + c + " cannot fill " + rows + " rows");
+            }
+            if (c > 0 && columnLow[c] <= columnHigh[c - 1]) {
+                throw new IllegalArgumentException("Column ranges overlap at column " + c);
+            }
+            max = Math.max(max, columnHigh[c]);
+        }
+        int cells = rows * cols;
+        for (int cell : freeCells) {
+            if (cell < 0 || cell >= cells) {
+                throw new IllegalArgumentException("Free cell " + cell + " is off the grid");
+            }
+        }
+        for (int line = 0; line < lines.length; line++) {
+            boolean[] inLine = new boolean[cells];
+            for (int cell : lines[line]) {
+                if (cell < 0 || cell >= cells) {
+                    throw new IllegalArgumentException("Line " + line + " has cell " + cell + " off the grid");
+                }
+                if (inLine[cell]) {
+                    throw new IllegalArgumentException("Line " + line + " repeats cell " + cell);
+                }
+                inLine[cell] = true;
+            }
+        }
+        this.name = name;
+        this.rows = rows;
+        this.cols = cols;
+        this.columnLow = columnLow.clone();
+        this.columnHigh = columnHigh.clone();
+        this.maxNumber = max;
+        this.numbersPerRow = numbersPerRow;
+        this.free = new boolean[cells];
+        for (int cell : freeCells) {
+            free[cell] = true;
+        }
+        this.lines = new int[lines.length][];
+        int[] lineCounts = new int[cells];
+        for (int line = 0; line < lines.length; line++) {
+            this.lines[line] = lines[line].clone();
+            for (int cell : lines[line]) {
+                lineCounts[cell]++;
+            }
+        }
+        this.cellLines = new int[cells][];
+        for (int cell = 0; cell < cellLines.length; cell++) {
+            cellLines[cell] = new int[lineCounts[cell]];
+            lineCounts[cell] = 0;
+        }
+        for (int line = 0; line < lines.length; line++) {
+            for (int cell : lines[line]) {
+                cellLines[cell][lineCounts[cell]++] = line;
+            }
+        }
+        this.linesToWin = linesToWin;
+    }
+
+    /**
+     * Builds a full-grid variant with evenly split column ranges and standard lines.
+     * @param name Display name
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param maxNumber Highest number; 1-maxNumber is split evenly across the columns
+     * @param freeCells Free cells
+     * @param diagonals Whether the two diagonals win too (square grids only)
+     * @return New definition needing one line to win
+     */
+    public static BoardDefinition grid(String name, int rows, int cols, int maxNumber, int[] freeCells, boolean diagonals) {
+        if (maxNumber % cols != 0) {
+            throw new IllegalArgumentException(maxNumber + " numbers do not split into " + cols + " columns");
+        }
+        int perColumn = maxNumber / cols;
+        int[] low = new int[cols];
+        int[] high = new int[cols];
+        for (int c = 0; c < cols; c++) {
+            low[c] = c * perColumn + 1;
+            high[c] = (c + 1) * perColumn;
+        }
+        return new BoardDefinition(name, rows, cols, low, high, cols, freeCells, standardLines(rows, cols, true, diagonals), 1);
+    }
+
+    /**
+     * Lists the standard lines: every row, then every column, then the main and anti-diagonal.
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param columns Whether columns win too
+     * @param diagonals Whether the diagonals win too (square grids only)
+     * @return Cells of each line
+     */
+    public static int[][] standardLines(int rows, int cols, boolean columns, boolean diagonals) {
+        if (diagonals && rows != cols) throw new IllegalArgumentException("Diagonals need a square grid");
+        List<int[]> lines = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            int[] line = new int[cols];
+            for (int c = 0; c < cols; c++) {
+                line[c] = r * cols + c;
+            }
+            lines.add(line);
+        }
+        if (columns) {
+            for (int c = 0; c < cols; c++) {
+                int[] line = new int[rows];
+                for (int r = 0; r < rows; r++) {
+                    line[r] = r * cols + c;
+                }
+                lines.add(line);
+            }
+        }
+        if (diagonals) {
+            int[] main = new int[rows];
+            int[] anti = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                main[i] = i * cols + i;
+                anti[i] = i * cols + (cols - 1 - i);
+            }
+            lines.add(main);
+            lines.add(anti);
+        }
+        return lines.toArray(new int[0][]);
+    }
+
+    // Getter for name
+    public String getName() {
+        return name;
+    }
+
+    // Getter for rows
+    public int getRows() {
+        return rows;
+    }
+
+    // Getter for cols
+    public int getCols() {
+        return cols;
+    }
+
+    // Getter for the number of cells
+    public int getCellCount() {
+        return rows * cols;
+    }
+
+    // Getter for the highest number
+    public int getMaxNumber() {
+        return maxNumber;
+    }
+
+    // Getter for the lowest number of a column
+    public int getColumnLow(int col) {
+        return columnLow[col];
+    }
+
+    // Getter for the highest number of a column
+    public int getColumnHigh(int col) {
+        return columnHigh[col];
+    }
+
+    // Getter for numbersPerRow
+    public int getNumbersPerRow() {
+        return numbersPerRow;
+    }
+
+    // Getter for whether a cell is free
+    public boolean isFree(int cell) {
+        return free[cell];
+    }
+
+    // Getter for the number of lines
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    // Getter for a line's cells; callers must not modify the array
+    int[] getLine(int line) {
+        return lines[line];
+    }
+
+    // Getter for the lines through a cell; callers must not modify the array
+    int[] getLinesThrough(int cell) {
+        return cellLines[cell];
+    }
+
+    // Getter for linesToWin
+    public int getLinesToWin() {
+        return linesToWin;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + rows + "x" + cols + " 1-" + maxNumber + " lines=" + lines.length
+                + " columns=" + Arrays.toString(columnLow);
+    }
+}
@@ -0,0 +1,200 @@
+package ict.mgame.bingogame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * CardBookGenerator class produces large books of distinct Bingo cards for printed and
+ * electronic play. Cards are generated in parallel batches straight into BingoCard's packed
+ * two-long form, deduplicated through a compact 64-bit fingerprint set, and streamed to the
+ * output in batch order, so memory stays bounded by one round of batches plus the set.
+ * Batch seeds depend only on the book seed and batch index, so the book is identical at any
+ * thread count.
+ *
+ * Book format: 4-byte magic "BKB1", 8-byte card count, then 12 bytes per card
+ * (packed low word as 8 bytes, low 32 bits of the packed high word as 4 bytes), big-endian.
+ */
+public final class CardBookGenerator {
+
+    // Magic bytes at the start of a book file ("BKB1")
+    public static final int MAGIC = 0x424B4231;
+    // Candidate cards generated per batch
+    private static final int BATCH_SIZE = 8192;
+    // Largest book: the fingerprint set keeps at most half of its 2^30 slots in use
+    public static final long MAX_CARDS = 1L << 29;
+
+    // Book seed
+    private final long seed;
+    // Worker threads
+    private final int threads;
+
+    /**
+     * Constructor for CardBookGenerator.
+     * @param seed Book seed; the same seed and count always give the same book
+     * @param threads Worker threads for card generation
+     */
+    public CardBookGenerator(long seed, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive");
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    /**
+     * Generates a book of distinct cards and writes it to a stream.
+     * @param count Number of cards in the book
+     * @param output Destination stream; not closed
+     * @return Number of duplicate candidates that were rejected
+     * @throws IllegalArgumentException if count is negative or above MAX_CARDS
+     */
+    public long generate(long count, OutputStream output) throws IOException, InterruptedException {
+        if (count < 0 || count > MAX_CARDS) {
+            throw new IllegalArgumentException("Book size must be 0 to " + MAX_CARDS + " cards: " + count);
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeLong(count);
+
+        FingerprintSet seen = new FingerprintSet(count);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long written = 0;
+        long duplicates = 0;
+        int nextBatch = 0;
+        try {
+            while (written < count) {
+                // Generate one batch per thread in parallel, then consume them in batch order
+                final int firstBatch = nextBatch;
+                long[][] batches = pool.submit(() -> IntStream.range(0, threads)
+                        .parallel()
+                        .mapToObj(i -> generateBatch(firstBatch + i))
+                        .toArray(long[][]::new)).get();
+                nextBatch += threads;
+
+                for (long[] batch : batches) {
+                    for (int i = 0; i < batch.length && written < count; i += 2) {
+                        if (seen.add(fingerprint(batch[i], batch[i + 1]))) {
+                            out.writeLong(batch[i]);
+                            out.writeInt((int) batch[i + 1]);
+                            written++;
+                        } else {
+                            duplicates++;
+                        }
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Card generation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        out.flush();
+        return duplicates;
+    }
+
+    /**
+     * Generates one batch of packed candidate cards with the batch's own random stream.
+     * @param batch Batch index
+     * @return Packed cards as (low, high) pairs
+     */
+    private long[] generateBatch(int batch) {
+        // Mixing the seed first keeps seed s, batch b + 1 from repeating seed s + 1, batch b
+        BingoRng rng = new SplitMixRng(SplitMixRng.mix(SplitMixRng.mix(seed) + batch));
+        long[] cards = new long[BATCH_SIZE * 2];
+        for (int i = 0; i < cards.length; i += 2) {
+            BingoCard.generatePacked(rng, cards, i);
+        }
+        return cards;
+    }
+
+    // 64-bit fingerprint of a packed card; never 0, which marks empty set slots
+    private static long fingerprint(long lo, long hi) {
+        long h = SplitMixRng.mix(lo ^ SplitMixRng.mix(hi));
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * FingerprintSet class is an open-addressing set of non-zero longs (8 bytes per slot).
+     * Equal cards always have equal fingerprints, so duplicates are always rejected;
+     * a fingerprint collision between distinct cards only drops a candidate.
+     */
+    private static final class FingerprintSet {
+        // Largest table: a long[] cannot have 2^31 slots
+        private static final int MAX_SLOTS = 1 << 30;
+
+        // Slots, 0 when empty
+        private long[] slots;
+        // Number of stored fingerprints
+        private int size;
+
+        FingerprintSet(long expected) {
+            int capacity = 16;
+            while (capacity < expected * 2 && capacity < MAX_SLOTS) {
+                capacity <<= 1;
+            }
+            slots = new long[capacity];
+        }
+
+        // Adds a fingerprint; returns false if it was already present
+        boolean add(long key) {
+            if (size * 2 >= slots.length) grow();
+            int mask = slots.length - 1;
+            int i = (int) key & mask;
+            while (slots[i] != 0) {
+                if (slots[i] == key) return false;
+                i = (i + 1) & mask;
+            }
+            slots[i] = key;
+            size++;
+            return true;
+        }
+
+        // Doubles the table and reinserts all fingerprints
+        private void grow() {
+            if (slots.length >= MAX_SLOTS) {
+                throw new IllegalStateException("Fingerprint set is full at " + size + " cards");
+            }
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            int mask = slots.length - 1;
+            for (long key : old) {
+                if (key == 0) continue;
+                int i = (int) key & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = key;
+            }
+        }
+    }
+
+    /**
+     * Command-line entry point.
+     * Usage: CardBookGenerator count seed outputFile [threads]
+     * @param args Command-line arguments
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: CardBookGenerator <count> <seed> <outputFile> [threads]");
+            System.exit(2);
+        }
+        long count = Long.parseLong(args[0]);
+        long seed = Long.parseLong(args[1]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        long duplicates;
+        // java.io rather than java.nio.file, which needs API 26
+        try (OutputStream out = new FileOutputStream(args[2])) {
+            duplicates = new CardBookGenerator(seed, threads).generate(count, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%d cards (%d duplicates rejected) on %d threads in %.2fs (%.0f cards/s) -> %s%n",
+                count, duplicates, threads, seconds, count / seconds, args[2]);
+    }
+}
@@ -13,11 +13,14 @@ import android.widget.EditText;
  * ConfigActivity class allows users to update their login credentials.
  * It verifies existing credentials, updates new ones if provided, and stores them in SharedPreferences.
  * Includes a 2-second delay before closing on successful update.
+ * Also sets the auto-draw interval, where 0 selects turbo drawing.
  */
 public class ConfigActivity extends Activity {
 
     // EditText fields for existing and new username/password
     private EditText existingUsername, existingPassword, newUsername, newPassword;
+    // EditText for the auto-draw interval in milliseconds
+    private EditText drawInterval;
     // SharedPreferences for storing and retrieving credentials
     private SharedPreferences sharedPreferences;
 
@@ -33,6 +36,8 @@ public class ConfigActivity extends Activity {
         newUsername = findViewById(R.id.new_username);
         newPassword = findViewById(R.id.new_password);
         Button btnConfirm = findViewById(R.id.btn_confirm);
+        drawInterval = findViewById(R.id.draw_interval);
+        Button btnSaveInterval = findViewById(R.id.btn_save_interval);
 
         // Get SharedPreferences instance
         sharedPreferences = getSharedPreferences("login.xml", MODE_PRIVATE);
@@ -42,6 +47,33 @@ public class ConfigActivity extends Activity {
         String storedPass = sharedPreferences.getString("password", "");
         existingUsername.setText(storedUser);
         existingPassword.setText(storedPass);
+        drawInterval.setText(String.valueOf(
+                sharedPreferences.getLong(DrawScheduler.PREF_INTERVAL_MS, DrawScheduler.DEFAULT_INTERVAL_MS)));
+
+        // Set click listener for saving the auto-draw interval (no credentials needed)
+        btnSaveInterval.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                long interval;
+                try {
+                    interval = Long.parseLong(drawInterval.getText().toString().trim());
+                } catch (NumberFormatException e) {
+                    interval = -1;
+                }
+                if (interval < 0) {
+                    new AlertDialog.Builder(ConfigActivity.this)
+                            .setMessage("Interval must be 0 or a positive number of milliseconds!")
+                            .setPositiveButton("OK", null)
+                            .show();
+                    return;
+                }
+                sharedPreferences.edit().putLong(DrawScheduler.PREF_INTERVAL_MS, interval).apply();
+                new AlertDialog.Builder(ConfigActivity.this)
+                        .setMessage(interval == 0 ? "Auto draw set to turbo!" : "Auto draw interval saved!")
+                        .setPositiveButton("OK", null)
+                        .show();
+            }
+        });
 
         // Set click listener for confirm button
         btnConfirm.setOnClickListener(new View.OnClickListener() {
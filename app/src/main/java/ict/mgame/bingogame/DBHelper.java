@@ -1,10 +1,20 @@
 package ict.mgame.bingogame;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * DBHelper class manages the SQLite database for the app.
@@ -15,7 +25,7 @@ public class DBHelper extends SQLiteOpenHelper {
     // Database name
     private static final String DATABASE_NAME = "bingo.db";
     // Database version (increment for schema changes)
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 8;
 
     // Table name
     public static final String TABLE_GAMEINFO = "gameinfo";
@@ -25,13 +35,62 @@ public class DBHelper extends SQLiteOpenHelper {
     public static final String COLUMN_ROUND = "round_number";
     public static final String COLUMN_WINNING_NUMBERS = "winning_numbers";
     public static final String COLUMN_TIMESTAMP = "timestamp";
+    public static final String COLUMN_SEED = "seed";
+    // Packed card as a 12-byte blob, versions 4 to 7; only read when upgrading
+    public static final String COLUMN_CARD = "card";
+    // Packed card words, read with getLong() instead of a blob allocated per row
+    public static final String COLUMN_CARD_LOW = "card_low";
+    public static final String COLUMN_CARD_HIGH = "card_high";
+    public static final String COLUMN_WIN_MASK = "win_mask";
+    public static final String COLUMN_MARKS_MASK = "marks_mask";
+    // Offset from UTC in milliseconds at the time of the win, which fixes the row's local day
+    public static final String COLUMN_UTC_OFFSET = "utc_offset";
+    // Inverted index from each winning-line number to the games it appeared in
+    public static final String TABLE_WIN_NUMBER = "win_number";
+    public static final String COLUMN_NUMBER = "number";
+    public static final String COLUMN_GAME_ID = "game_id";
+    // Aggregate tables, kept in step with gameinfo by every insert
+    public static final String TABLE_USER_STATS = "user_stats";
+    public static final String TABLE_DAILY_STATS = "daily_stats";
+    public static final String COLUMN_DAY = "day";
+    public static final String COLUMN_WINS = "wins";
+    public static final String COLUMN_ROUND_SUM = "round_sum";
+    public static final String COLUMN_BEST_ROUND = "best_round";
+    public static final String COLUMN_LAST_WIN = "last_win";
+    // Index backing the leaderboard (most wins first)
+    private static final String INDEX_LEADERBOARD = "idx_user_stats_wins";
+    // Milliseconds per day
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // Index backing newest-first keyset paging on (timestamp, id)
+    private static final String INDEX_TIMESTAMP = "idx_gameinfo_timestamp";
+
+    // Precompiled insert for gameinfo rows, bound to the current writable connection
+    private SQLiteStatement insertStatement;
+    // Precompiled insert for win_number rows
+    private SQLiteStatement insertWinNumberStatement;
+    // Incremental updaters for the aggregate tables
+    private final StatsTable userStats = new StatsTable(TABLE_USER_STATS, COLUMN_USERNAME);
+    private final StatsTable dailyStats = new StatsTable(TABLE_DAILY_STATS, COLUMN_DAY);
+    // Scratch buffer for one game's winning numbers, used under the insert lock
+    private final int[] winNumbers = new int[BingoCard.SIZE];
 
     /**
      * Constructor for DBHelper.
      * @param context Application context
      */
     public DBHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+
+    /**
+     * Constructor for DBHelper with another database file, for tests.
+     * @param context Application context
+     * @param name Database file name
+     */
+    DBHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+        // WAL lets History read while game results are being written
+        setWriteAheadLoggingEnabled(true);
     }
 
     @Override
@@ -42,15 +101,75 @@ public class DBHelper extends SQLiteOpenHelper {
                 COLUMN_USERNAME + " TEXT, " +
                 COLUMN_ROUND + " INTEGER, " +
                 COLUMN_WINNING_NUMBERS + " TEXT, " +
-                COLUMN_TIMESTAMP + " INTEGER)";
+                COLUMN_TIMESTAMP + " INTEGER, " +
+                COLUMN_SEED + " INTEGER, " +
+                COLUMN_CARD_LOW + " INTEGER, " +
+                COLUMN_CARD_HIGH + " INTEGER, " +
+                COLUMN_WIN_MASK + " INTEGER, " +
+                COLUMN_MARKS_MASK + " INTEGER, " +
+                COLUMN_UTC_OFFSET + " INTEGER)";
         db.execSQL(createTable);
+        createTimestampIndex(db);
+        createWinNumberTable(db);
+        createStatsTables(db);
+    }
+
+    // Creates the win_number table; keyed (number, game_id) so each number's games are one range
+    private static void createWinNumberTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_WIN_NUMBER + " (" +
+                COLUMN_NUMBER + " INTEGER NOT NULL, " +
+                COLUMN_GAME_ID + " INTEGER NOT NULL, " +
+                "PRIMARY KEY (" + COLUMN_NUMBER + ", " + COLUMN_GAME_ID + ")) WITHOUT ROWID");
+    }
+
+    // Creates the (timestamp, id) index used by the paged history queries
+    private static void createTimestampIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_TIMESTAMP + " ON " + TABLE_GAMEINFO +
+                " (" + COLUMN_TIMESTAMP + ", " + COLUMN_ID + ")");
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Drop table if exists and recreate on version upgrade
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_GAMEINFO);
-        onCreate(db);
+        // Migrate step by step so existing history is kept
+        if (oldVersion < 2) {
+            // Version 2 records the round seed; older rows keep a NULL seed
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_SEED + " INTEGER");
+        }
+        if (oldVersion < 3) {
+            // Version 3 indexes timestamp for paged history loading
+            createTimestampIndex(db);
+        }
+        if (oldVersion < 4) {
+            // Version 4 stores the packed card and masks; older rows keep only winning_numbers
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_CARD + " BLOB");
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_WIN_MASK + " INTEGER");
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_MARKS_MASK + " INTEGER");
+        }
+        if (oldVersion < 5) {
+            // Version 5 indexes winning numbers; existing rows are indexed from their stored line
+            createWinNumberTable(db);
+            backfillWinNumbers(db);
+        }
+        if (oldVersion < 6) {
+            // Version 6 keeps per-user and per-day totals
+            createStatsTables(db);
+        }
+        if (oldVersion < 7) {
+            // Version 7 records the UTC offset of each win; older rows get the offset their
+            // daily totals were counted with
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_UTC_OFFSET + " INTEGER");
+            backfillUtcOffsets(db);
+        }
+        if (oldVersion < 8) {
+            // Version 8 stores the card as two integers; the blob column stays, emptied
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_CARD_LOW + " INTEGER");
+            db.execSQL("ALTER TABLE " + TABLE_GAMEINFO + " ADD COLUMN " + COLUMN_CARD_HIGH + " INTEGER");
+            unpackCardBlobs(db);
+        }
+        if (oldVersion < 6) {
+            // The new totals start from the existing history, once every row has its offset
+            rebuildStats(db);
+        }
     }
 
     /**
@@ -58,17 +177,400 @@ public class DBHelper extends SQLiteOpenHelper {
      * @param gameInfo The GameInfo to insert
      */
     public void insertGameInfo(GameInfo gameInfo) {
-        // Get writable database
+        insertGameInfoBatch(Collections.singletonList(gameInfo));
+    }
+
+    /**
+     * Inserts several GameInfo objects in one transaction with a precompiled statement.
+     * The connection stays open for the next batch; it is released by close().
+     * @param batch The GameInfo objects to insert
+     */
+    public synchronized void insertGameInfoBatch(List<GameInfo> batch) {
+        long start = Metrics.start();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (GameInfo gameInfo : batch) {
+                insertGameInfo(db, gameInfo);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        Metrics.count(Metrics.ROWS_WRITTEN, batch.size());
+        Metrics.DB_INSERT.recordSince(start);
+    }
+
+    /**
+     * Inserts one row inside the caller's transaction.
+     * @param db Writable database
+     * @param gameInfo The GameInfo to insert
+     * @return Row id of the new row
+     */
+    private long insertGameInfo(SQLiteDatabase db, GameInfo gameInfo) {
+        if (insertStatement == null) {
+            insertStatement = db.compileStatement("INSERT INTO " + TABLE_GAMEINFO + " (" +
+                    COLUMN_USERNAME + ", " + COLUMN_ROUND + ", " + COLUMN_WINNING_NUMBERS + ", " +
+                    COLUMN_TIMESTAMP + ", " + COLUMN_SEED + ", " + COLUMN_CARD_LOW + ", " +
+                    COLUMN_CARD_HIGH + ", " + COLUMN_WIN_MASK + ", " + COLUMN_MARKS_MASK + ", " +
+                    COLUMN_UTC_OFFSET + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        SQLiteStatement statement = insertStatement;
+        statement.clearBindings();
+        // Map GameInfo fields to statement arguments
+        if (gameInfo.getUsername() != null) statement.bindString(1, gameInfo.getUsername());
+        statement.bindLong(2, gameInfo.getRound());
+        statement.bindLong(4, gameInfo.getTimestamp());
+        if (gameInfo.getSeed() != BingoRound.NO_SEED) statement.bindLong(5, gameInfo.getSeed());
+        if (gameInfo.hasCard()) {
+            // The card replaces the winning number text, which is derived from it when read
+            statement.bindLong(6, gameInfo.getCardLow());
+            statement.bindLong(7, gameInfo.getCardHigh());
+            statement.bindLong(8, gameInfo.getWinMask());
+            statement.bindLong(9, gameInfo.getMarksMask());
+        } else if (gameInfo.getWinningNumbers() != null) {
+            statement.bindString(3, gameInfo.getWinningNumbers());
+        }
+        // The day a win counts for must not move if the device's time zone changes later
+        int utcOffset = TimeZone.getDefault().getOffset(gameInfo.getTimestamp());
+        statement.bindLong(10, utcOffset);
+        long id = statement.executeInsert();
+        insertWinNumbers(db, id, gameInfo);
+        addToStats(db, gameInfo.getUsername(), gameInfo.getRound(), gameInfo.getTimestamp(), utcOffset);
+        return id;
+    }
+
+    /**
+     * Adds a game's winning-line numbers to the win_number index inside the caller's transaction.
+     * @param db Writable database
+     * @param id Row id of the game
+     * @param gameInfo The stored game
+     */
+    private void insertWinNumbers(SQLiteDatabase db, long id, GameInfo gameInfo) {
+        if (insertWinNumberStatement == null) {
+            insertWinNumberStatement = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_WIN_NUMBER +
+                    " (" + COLUMN_NUMBER + ", " + COLUMN_GAME_ID + ") VALUES (?, ?)");
+        }
+        int count = gameInfo.getWinningNumbers(winNumbers);
+        for (int i = 0; i < count; i++) {
+            insertWinNumberStatement.bindLong(1, winNumbers[i]);
+            insertWinNumberStatement.bindLong(2, id);
+            insertWinNumberStatement.executeInsert();
+        }
+    }
+
+    // Creates the user_stats and daily_stats tables and the leaderboard index
+    private static void createStatsTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_USER_STATS + " (" +
+                COLUMN_USERNAME + " TEXT PRIMARY KEY, " +
+                COLUMN_WINS + " INTEGER NOT NULL, " +
+                COLUMN_ROUND_SUM + " INTEGER NOT NULL, " +
+                COLUMN_BEST_ROUND + " INTEGER NOT NULL, " +
+                COLUMN_LAST_WIN + " INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE " + TABLE_DAILY_STATS + " (" +
+                COLUMN_DAY + " INTEGER PRIMARY KEY, " +
+                COLUMN_WINS + " INTEGER NOT NULL, " +
+                COLUMN_ROUND_SUM + " INTEGER NOT NULL, " +
+                COLUMN_BEST_ROUND + " INTEGER NOT NULL, " +
+                COLUMN_LAST_WIN + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX " + INDEX_LEADERBOARD + " ON " + TABLE_USER_STATS +
+                " (" + COLUMN_WINS + " DESC, " + COLUMN_USERNAME + ")");
+    }
+
+    /**
+     * Counts one win in the aggregate tables inside the caller's transaction.
+     * @param db Writable database
+     * @param username Winner (null is counted as "")
+     * @param round Winning round number
+     * @param timestamp Time of the win
+     * @param utcOffset Offset from UTC in milliseconds recorded with the win
+     */
+    private void addToStats(SQLiteDatabase db, String username, int round, long timestamp, int utcOffset) {
+        userStats.add(db, username == null ? "" : username, round, timestamp);
+        // The day is bound as text; the INTEGER key column's affinity stores it as a number
+        dailyStats.add(db, Long.toString(localDay(timestamp, utcOffset)), round, timestamp);
+    }
+
+    // Day number (days since 1970-01-01) of a timestamp at the given UTC offset
+    private static long localDay(long timestamp, int utcOffset) {
+        return Math.floorDiv(timestamp + utcOffset, DAY_MS);
+    }
+
+    // Moves the packed cards of rows from before version 8 out of their blobs
+    private static void unpackCardBlobs(SQLiteDatabase db) {
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_GAMEINFO + " SET " +
+                COLUMN_CARD_LOW + " = ?, " + COLUMN_CARD_HIGH + " = ?, " + COLUMN_CARD + " = NULL WHERE " +
+                COLUMN_ID + " = ?");
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_CARD + " FROM " + TABLE_GAMEINFO +
+                " WHERE " + COLUMN_CARD + " IS NOT NULL", null);
+        try {
+            while (cursor.moveToNext()) {
+                byte[] card = cursor.getBlob(1);
+                update.bindLong(1, BingoCard.packedLowFromBytes(card));
+                update.bindLong(2, BingoCard.packedHighFromBytes(card));
+                update.bindLong(3, cursor.getLong(0));
+                update.executeUpdateDelete();
+            }
+        } finally {
+            cursor.close();
+            update.close();
+        }
+    }
+
+    // Records, for rows from before version 7, the offset of the current time zone at their time
+    private static void backfillUtcOffsets(SQLiteDatabase db) {
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_GAMEINFO + " SET " +
+                COLUMN_UTC_OFFSET + " = ? WHERE " + COLUMN_ID + " = ?");
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_TIMESTAMP + " FROM " + TABLE_GAMEINFO, null);
+        try {
+            TimeZone zone = TimeZone.getDefault();
+            while (cursor.moveToNext()) {
+                update.bindLong(1, zone.getOffset(cursor.getLong(1)));
+                update.bindLong(2, cursor.getLong(0));
+                update.executeUpdateDelete();
+            }
+        } finally {
+            cursor.close();
+            update.close();
+        }
+    }
+
+    // Formats a day number as "yyyy-MM-dd"
+    private static String formatDay(long day) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(day * DAY_MS));
+    }
+
+    /**
+     * Recomputes both aggregate tables from the raw gameinfo rows.
+     */
+    public synchronized void rebuildStats() {
         SQLiteDatabase db = this.getWritableDatabase();
-        // Map GameInfo fields to ContentValues
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_USERNAME, gameInfo.getUsername());
-        values.put(COLUMN_ROUND, gameInfo.getRound());
-        values.put(COLUMN_WINNING_NUMBERS, gameInfo.getWinningNumbers());
-        values.put(COLUMN_TIMESTAMP, gameInfo.getTimestamp());
-        // Insert values into table
-        db.insert(TABLE_GAMEINFO, null, values);
-        db.close();
+        db.beginTransaction();
+        try {
+            rebuildStats(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Clears the aggregate tables and re-adds every gameinfo row; runs inside the caller's transaction.
+     * @param db Writable database
+     */
+    private void rebuildStats(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_USER_STATS);
+        db.execSQL("DELETE FROM " + TABLE_DAILY_STATS);
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_USERNAME + ", " + COLUMN_ROUND + ", " +
+                COLUMN_TIMESTAMP + ", " + COLUMN_UTC_OFFSET + " FROM " + TABLE_GAMEINFO, null);
+        try {
+            while (cursor.moveToNext()) {
+                addToStats(db, cursor.getString(0), cursor.getInt(1), cursor.getLong(2), cursor.getInt(3));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Compares the aggregate tables with totals recomputed from the raw gameinfo rows.
+     * @return Number of users and days whose stored totals are missing, extra or different (0 when consistent)
+     */
+    public int checkStats() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Map<String, WinStats> expectedUsers = new HashMap<>();
+        Map<String, WinStats> expectedDays = new HashMap<>();
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_USERNAME + ", " + COLUMN_ROUND + ", " +
+                COLUMN_TIMESTAMP + ", " + COLUMN_UTC_OFFSET + " FROM " + TABLE_GAMEINFO, null);
+        try {
+            while (cursor.moveToNext()) {
+                String username = cursor.getString(0);
+                int round = cursor.getInt(1);
+                long timestamp = cursor.getLong(2);
+                accumulate(expectedUsers, username == null ? "" : username, round, timestamp);
+                accumulate(expectedDays, formatDay(localDay(timestamp, cursor.getInt(3))), round, timestamp);
+            }
+        } finally {
+            cursor.close();
+        }
+        return countMismatches(expectedUsers, readStats(db, TABLE_USER_STATS, null, -1))
+                + countMismatches(expectedDays, readStats(db, TABLE_DAILY_STATS, null, -1));
+    }
+
+    // Adds one win to an in-memory total
+    private static void accumulate(Map<String, WinStats> totals, String name, int round, long timestamp) {
+        WinStats old = totals.get(name);
+        totals.put(name, old == null ? new WinStats(name, 1, round, round, timestamp)
+                : new WinStats(name, old.getWins() + 1, old.getRoundSum() + round,
+                        Math.min(old.getBestRound(), round), Math.max(old.getLastWin(), timestamp)));
+    }
+
+    // Counts keys that differ between expected and stored totals
+    private static int countMismatches(Map<String, WinStats> expected, List<WinStats> stored) {
+        int mismatches = 0;
+        for (WinStats row : stored) {
+            WinStats want = expected.remove(row.getName());
+            if (want == null || !want.sameAs(row)) mismatches++;
+        }
+        return mismatches + expected.size();  // Whatever is left was never stored
+    }
+
+    /**
+     * Retrieves one user's totals.
+     * @param username Username to look up
+     * @return Totals, or null if the user has no wins
+     */
+    public WinStats getUserStats(String username) {
+        List<WinStats> rows = readStats(this.getReadableDatabase(), TABLE_USER_STATS,
+                COLUMN_USERNAME + " = ?", 1, username);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Retrieves the users with the most wins, read straight from the leaderboard index.
+     * @param limit Maximum number of users
+     * @return Totals, most wins first, ties by username
+     */
+    public List<WinStats> getLeaderboard(int limit) {
+        return readStats(this.getReadableDatabase(), TABLE_USER_STATS, null, limit);
+    }
+
+    /**
+     * Retrieves the daily totals of the most recent days with wins.
+     * @param days Maximum number of days
+     * @return Totals named "yyyy-MM-dd", newest day first
+     */
+    public List<WinStats> getDailyStats(int days) {
+        return readStats(this.getReadableDatabase(), TABLE_DAILY_STATS, null, days);
+    }
+
+    /**
+     * Reads rows of an aggregate table.
+     * @param db Database to read
+     * @param table TABLE_USER_STATS or TABLE_DAILY_STATS
+     * @param where Selection, or null for all rows
+     * @param limit Maximum number of rows, or -1 for all
+     * @param args Selection arguments
+     * @return Rows in the table's natural order (leaderboard order or newest day first)
+     */
+    private static List<WinStats> readStats(SQLiteDatabase db, String table, String where, int limit, String... args) {
+        boolean daily = table.equals(TABLE_DAILY_STATS);
+        String order = daily ? COLUMN_DAY + " DESC" : COLUMN_WINS + " DESC, " + COLUMN_USERNAME;
+        Cursor cursor = db.query(table, new String[]{daily ? COLUMN_DAY : COLUMN_USERNAME, COLUMN_WINS,
+                        COLUMN_ROUND_SUM, COLUMN_BEST_ROUND, COLUMN_LAST_WIN}, where, args, null, null, order,
+                limit < 0 ? null : Integer.toString(limit));
+        List<WinStats> rows = new ArrayList<>();
+        try {
+            while (cursor.moveToNext()) {
+                String name = daily ? formatDay(cursor.getLong(0)) : cursor.getString(0);
+                rows.add(new WinStats(name, cursor.getLong(1), cursor.getLong(2), cursor.getInt(3), cursor.getLong(4)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return rows;
+    }
+
+    /**
+     * StatsTable class updates one aggregate table in place with precompiled statements:
+     * an UPDATE of the key's row, followed by an INSERT when the key is new.
+     */
+    private static final class StatsTable {
+        // Table and key column
+        private final String table;
+        private final String keyColumn;
+        // Compiled statements, bound to the current writable connection
+        private SQLiteStatement update;
+        private SQLiteStatement insert;
+
+        StatsTable(String table, String keyColumn) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+        }
+
+        // Counts one win for a key
+        void add(SQLiteDatabase db, String key, int round, long timestamp) {
+            if (update == null) {
+                update = db.compileStatement("UPDATE " + table + " SET " +
+                        COLUMN_WINS + " = " + COLUMN_WINS + " + 1, " +
+                        COLUMN_ROUND_SUM + " = " + COLUMN_ROUND_SUM + " + ?1, " +
+                        COLUMN_BEST_ROUND + " = MIN(" + COLUMN_BEST_ROUND + ", ?1), " +
+                        COLUMN_LAST_WIN + " = MAX(" + COLUMN_LAST_WIN + ", ?2) " +
+                        "WHERE " + keyColumn + " = ?3");
+                insert = db.compileStatement("INSERT INTO " + table + " (" + keyColumn + ", " +
+                        COLUMN_WINS + ", " + COLUMN_ROUND_SUM + ", " + COLUMN_BEST_ROUND + ", " +
+                        COLUMN_LAST_WIN + ") VALUES (?3, 1, ?1, ?1, ?2)");
+            }
+            // No UPSERT before SQLite 3.24 (minSdk 25 ships 3.9), so update and insert on a miss
+            update.bindLong(1, round);
+            update.bindLong(2, timestamp);
+            update.bindString(3, key);
+            if (update.executeUpdateDelete() == 0) {
+                insert.bindLong(1, round);
+                insert.bindLong(2, timestamp);
+                insert.bindString(3, key);
+                insert.executeInsert();
+            }
+        }
+
+        // Releases the compiled statements
+        void close() {
+            if (update != null) {
+                update.close();
+                insert.close();
+                update = null;
+                insert = null;
+            }
+        }
+    }
+
+    /**
+     * Indexes the winning numbers of every existing row; runs inside the upgrade transaction.
+     * @param db Database being upgraded
+     */
+    private static void backfillWinNumbers(SQLiteDatabase db) {
+        SQLiteStatement insert = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_WIN_NUMBER +
+                " (" + COLUMN_NUMBER + ", " + COLUMN_GAME_ID + ") VALUES (?, ?)");
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_WINNING_NUMBERS + ", " +
+                COLUMN_CARD + ", " + COLUMN_WIN_MASK + " FROM " + TABLE_GAMEINFO, null);
+        try {
+            int[] numbers = new int[BingoCard.SIZE];
+            while (cursor.moveToNext()) {
+                GameInfo gameInfo = new GameInfo(null, 0, cursor.getString(1), 0);
+                if (!cursor.isNull(2)) {
+                    byte[] card = cursor.getBlob(2);
+                    gameInfo.setCard(BingoCard.packedLowFromBytes(card), BingoCard.packedHighFromBytes(card),
+                            cursor.getInt(3), 0);
+                }
+                int count = gameInfo.getWinningNumbers(numbers);
+                for (int i = 0; i < count; i++) {
+                    insert.bindLong(1, numbers[i]);
+                    insert.bindLong(2, cursor.getLong(0));
+                    insert.executeInsert();
+                }
+            }
+        } finally {
+            cursor.close();
+            insert.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        // Release the compiled statement along with the connection
+        if (insertStatement != null) {
+            insertStatement.close();
+            insertStatement = null;
+        }
+        if (insertWinNumberStatement != null) {
+            insertWinNumberStatement.close();
+            insertWinNumberStatement = null;
+        }
+        userStats.close();
+        dailyStats.close();
+        super.close();
     }
 
     /**
@@ -81,4 +583,156 @@ public class DBHelper extends SQLiteOpenHelper {
         // Query all columns, sorted by timestamp DESC
         return db.query(TABLE_GAMEINFO, null, null, null, null, null, COLUMN_TIMESTAMP + " DESC");  // Sorted by newest first
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the newest page of game info records.
+     * @param limit Maximum number of rows
+     * @return Rows sorted by timestamp, then id, descending
+     */
+    public List<GameInfo> getGameInfoFirstPage(int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_GAMEINFO +
+                " ORDER BY " + COLUMN_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT " + limit, null);
+        return readGameInfos(cursor, false);
+    }
+
+    /**
+     * Retrieves the page of records just older than a given row (keyset paging).
+     * @param timestamp Timestamp of the oldest row already loaded
+     * @param id Id of the oldest row already loaded
+     * @param limit Maximum number of rows
+     * @return Rows sorted by timestamp, then id, descending
+     */
+    public List<GameInfo> getGameInfoPageBefore(long timestamp, long id, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        // The leading timestamp range lets SQLite seek the (timestamp, id) index
+        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_GAMEINFO +
+                " WHERE " + COLUMN_TIMESTAMP + " <= ? AND (" + COLUMN_TIMESTAMP + " < ? OR " + COLUMN_ID + " < ?)" +
+                " ORDER BY " + COLUMN_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT " + limit,
+                new String[]{Long.toString(timestamp), Long.toString(timestamp), Long.toString(id)});
+        return readGameInfos(cursor, false);
+    }
+
+    /**
+     * Retrieves the page of records just newer than a given row (keyset paging).
+     * @param timestamp Timestamp of the newest row already loaded
+     * @param id Id of the newest row already loaded
+     * @param limit Maximum number of rows
+     * @return Rows sorted by timestamp, then id, descending
+     */
+    public List<GameInfo> getGameInfoPageAfter(long timestamp, long id, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_GAMEINFO +
+                " WHERE " + COLUMN_TIMESTAMP + " >= ? AND (" + COLUMN_TIMESTAMP + " > ? OR " + COLUMN_ID + " > ?)" +
+                " ORDER BY " + COLUMN_TIMESTAMP + " ASC, " + COLUMN_ID + " ASC LIMIT " + limit,
+                new String[]{Long.toString(timestamp), Long.toString(timestamp), Long.toString(id)});
+        return readGameInfos(cursor, true);
+    }
+
+    /**
+     * Retrieves records in id order, for walking the whole table a page at a time.
+     * @param id Id of the last row already read (0 to start)
+     * @param limit Maximum number of rows
+     * @return Rows with larger ids, ascending
+     */
+    public List<GameInfo> getGameInfoAfterId(long id, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_GAMEINFO + " WHERE " + COLUMN_ID + " > ?" +
+                " ORDER BY " + COLUMN_ID + " LIMIT " + limit, new String[]{Long.toString(id)});
+        return readGameInfos(cursor, false);
+    }
+
+    /**
+     * Retrieves the newest games whose winning line contained all of the given numbers,
+     * e.g. 7 and 42. Each number is a range scan of the win_number key; the scans are
+     * intersected before any gameinfo row is touched.
+     * @param numbers Numbers that must all appear in the winning line
+     * @param limit Maximum number of rows
+     * @return Rows sorted by timestamp, then id, descending
+     */
+    public List<GameInfo> getGameInfoWithNumbers(int[] numbers, int limit) {
+        if (numbers.length == 0) return getGameInfoFirstPage(limit);
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_GAMEINFO +
+                " WHERE " + COLUMN_ID + " IN (" + winNumberIntersection(numbers) + ")" +
+                " ORDER BY " + COLUMN_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT " + limit,
+                numberArgs(numbers));
+        return readGameInfos(cursor, false);
+    }
+
+    /**
+     * Counts the games whose winning line contained all of the given numbers.
+     * @param numbers Numbers that must all appear in the winning line (at least one)
+     * @return Number of matching games
+     */
+    public long countGamesWithNumbers(int[] numbers) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM (" + winNumberIntersection(numbers) + ")",
+                numberArgs(numbers));
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // "SELECT game_id ... WHERE number = ? INTERSECT ..." with one leg per number
+    private static String winNumberIntersection(int[] numbers) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < numbers.length; i++) {
+            if (i > 0) sql.append(" INTERSECT ");
+            sql.append("SELECT ").append(COLUMN_GAME_ID).append(" FROM ").append(TABLE_WIN_NUMBER)
+                    .append(" WHERE ").append(COLUMN_NUMBER).append(" = ?");
+        }
+        return sql.toString();
+    }
+
+    // Query arguments for winNumberIntersection()
+    private static String[] numberArgs(int[] numbers) {
+        String[] args = new String[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            args[i] = Integer.toString(numbers[i]);
+        }
+        return args;
+    }
+
+    /**
+     * Reads all rows of a cursor into GameInfo objects and closes it.
+     * Column indexes are resolved once per cursor, not once per row.
+     * @param cursor Query result over gameinfo columns
+     * @param reverse true to return the rows in reverse cursor order
+     * @return Rows read
+     */
+    private static List<GameInfo> readGameInfos(Cursor cursor, boolean reverse) {
+        List<GameInfo> rows = new ArrayList<>(cursor.getCount());
+        try {
+            int idIndex = cursor.getColumnIndexOrThrow(COLUMN_ID);
+            int usernameIndex = cursor.getColumnIndexOrThrow(COLUMN_USERNAME);
+            int roundIndex = cursor.getColumnIndexOrThrow(COLUMN_ROUND);
+            int winningNumbersIndex = cursor.getColumnIndexOrThrow(COLUMN_WINNING_NUMBERS);
+            int timestampIndex = cursor.getColumnIndexOrThrow(COLUMN_TIMESTAMP);
+            int seedIndex = cursor.getColumnIndexOrThrow(COLUMN_SEED);
+            int cardLowIndex = cursor.getColumnIndexOrThrow(COLUMN_CARD_LOW);
+            int cardHighIndex = cursor.getColumnIndexOrThrow(COLUMN_CARD_HIGH);
+            int winMaskIndex = cursor.getColumnIndexOrThrow(COLUMN_WIN_MASK);
+            int marksMaskIndex = cursor.getColumnIndexOrThrow(COLUMN_MARKS_MASK);
+            while (cursor.moveToNext()) {
+                GameInfo gameInfo = new GameInfo(cursor.getString(usernameIndex), cursor.getInt(roundIndex),
+                        cursor.getString(winningNumbersIndex), cursor.getLong(timestampIndex),
+                        cursor.getLong(seedIndex));  // NULL seed reads as NO_SEED
+                gameInfo.setId(cursor.getLong(idIndex));
+                if (!cursor.isNull(cardLowIndex)) {
+                    gameInfo.setCard(cursor.getLong(cardLowIndex), cursor.getLong(cardHighIndex),
+                            cursor.getInt(winMaskIndex), cursor.getInt(marksMaskIndex));
+                }
+                rows.add(gameInfo);
+            }
+        } finally {
+            cursor.close();
+        }
+        if (reverse) {
+            Collections.reverse(rows);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,128 @@
+package ict.mgame.bingogame;
+
+/**
+ * DrawDeck class is the caller's deck of numbers 1-75.
+ * The whole draw order is fixed up front by a Fisher-Yates shuffle into a byte array,
+ * and drawing just advances a cursor, so a draw costs O(1) and allocates nothing.
+ * Numbers not yet drawn can be read in draw order with peek() without copying.
+ */
+public final class DrawDeck {
+
+    // Numbers 1-75 in draw order
+    private final byte[] order = new byte[BingoCard.MAX_NUMBER];
+    // Index of the next number to draw
+    private int cursor;
+
+    /**
+     * Constructor for an unshuffled deck (1-75 in ascending order).
+     */
+    public DrawDeck() {
+        reset();
+    }
+
+    /**
+     * Constructor for a deck resumed part-way, with no shuffling.
+     * @param order Draw order from copyOrder(): every number 1-75 exactly once
+     * @param cursor Numbers already drawn (0-75)
+     * @throws IllegalArgumentException if the order is not a permutation of 1-75 or the cursor is out of range
+     */
+    public DrawDeck(byte[] order, int cursor) {
+        if (order.length != this.order.length || cursor < 0 || cursor > order.length) {
+            throw new IllegalArgumentException("Bad deck state");
+        }
+        long seenLow = 0, seenHigh = 0;
+        for (byte b : order) {
+            int n = b;
+            if (n < 1 || n > BingoCard.MAX_NUMBER) throw new IllegalArgumentException("Bad number " + n);
+            if (n < 64) seenLow |= 1L << n; else seenHigh |= 1L << (n - 64);
+        }
+        if (Long.bitCount(seenLow) + Long.bitCount(seenHigh) != BingoCard.MAX_NUMBER) {
+            throw new IllegalArgumentException("Draw order repeats a number");
+        }
+        System.arraycopy(order, 0, this.order, 0, order.length);
+        this.cursor = cursor;
+    }
+
+    /**
+     * Puts all numbers back in ascending order without shuffling.
+     */
+    public void reset() {
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (byte) (i + 1);
+        }
+        cursor = 0;
+    }
+
+    /**
+     * Puts all numbers back and shuffles them; the resulting order depends only on the rng state.
+     * @param rng Random source
+     */
+    public void shuffle(BingoRng rng) {
+        reset();
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            byte tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    /**
+     * Draws the next number.
+     * @return Drawn number (1-75)
+     * @throws IllegalStateException if the deck is empty
+     */
+    public int draw() {
+        if (cursor == order.length) {
+            throw new IllegalStateException("No more numbers to draw");
+        }
+        return order[cursor++];
+    }
+
+    /**
+     * Reads a remaining number without drawing it.
+     * @param offset 0 for the next number to draw, up to remaining() - 1
+     * @return Number at that position in the remaining draw order
+     */
+    public int peek(int offset) {
+        if (offset < 0 || offset >= remaining()) {
+            throw new IndexOutOfBoundsException("offset " + offset);
+        }
+        return order[cursor + offset];
+    }
+
+    /**
+     * Reads a number that has already been drawn.
+     * @param index Draw index, 0 for the first draw
+     * @return Number drawn at that index
+     */
+    public int drawnAt(int index) {
+        if (index < 0 || index >= cursor) {
+            throw new IndexOutOfBoundsException("index " + index);
+        }
+        return order[index];
+    }
+
+    /**
+     * Copies the full draw order, drawn and remaining, e.g. to save the deck.
+     * @return New array of 75 numbers in draw order
+     */
+    public byte[] copyOrder() {
+        return order.clone();
+    }
+
+    // Getter for whether every number has been drawn
+    public boolean isEmpty() {
+        return cursor == order.length;
+    }
+
+    // Getter for the number of numbers still to draw
+    public int remaining() {
+        return order.length - cursor;
+    }
+
+    // Getter for the number of numbers drawn so far
+    public int drawnCount() {
+        return cursor;
+    }
+}
@@ -0,0 +1,82 @@
+package ict.mgame.bingogame;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * DrawScheduler class runs auto-draw against a GameEngine at a configurable interval.
+ * It only sends commands: with an interval above zero it queues one auto-draw per tick, and
+ * with an interval of zero (turbo) it asks the engine to draw to the end of the round on its
+ * own thread. The engine serializes these with the buttons' commands, so the scheduler never
+ * touches game state. The owner stops the scheduler when a snapshot shows the round finished.
+ *
+ * Must be created and controlled from the UI thread.
+ */
+public class DrawScheduler {
+
+    // Preference key and default for the auto-draw interval
+    public static final String PREF_INTERVAL_MS = "draw_interval_ms";
+    public static final long DEFAULT_INTERVAL_MS = 3000;
+
+    // Engine receiving the draw commands
+    private final GameEngine engine;
+    // UI thread handler for timed draws
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Tick interval in milliseconds, 0 for turbo
+    private long intervalMs;
+    // true between start() and stop()
+    private boolean running;
+
+    /**
+     * Constructor for DrawScheduler.
+     * @param engine Engine to send draw commands to
+     */
+    public DrawScheduler(GameEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Starts auto-draw. Any earlier run is stopped first.
+     * @param intervalMs Milliseconds between draws, 0 for turbo
+     */
+    public void start(long intervalMs) {
+        stop();
+        this.intervalMs = Math.max(0, intervalMs);
+        running = true;
+        if (this.intervalMs > 0) {
+            handler.postDelayed(tick, this.intervalMs);
+        } else {
+            engine.runToEnd();
+        }
+    }
+
+    /**
+     * Stops auto-draw; no command is sent afterwards. Safe to call when not running.
+     */
+    public void stop() {
+        if (!running) return;
+        running = false;
+        handler.removeCallbacks(tick);
+        if (intervalMs == 0) engine.halt();
+    }
+
+    // Getter for whether auto-draw is active
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Getter for whether a turbo run (drawing on the engine thread) is active
+    public boolean isTurbo() {
+        return running && intervalMs == 0;
+    }
+
+    // One timed draw command
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) return;
+            engine.autoDraw();
+            handler.postDelayed(this, intervalMs);
+        }
+    };
+}
@@ -0,0 +1,228 @@
+package ict.mgame.bingogame;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * FinishingCallSolver class settles a pre-drawn game without stepping through the draws.
+ * With the full draw order known, a line completes on the latest call among its cells, and a
+ * card wins on the earliest of its 12 line completions. Each card therefore costs one pass
+ * over its 25 cells plus 12 five-cell maxima.
+ */
+public final class FinishingCallSolver {
+
+    // Lines are folded into results as (call << LINE_BITS) | line
+    private static final int LINE_BITS = 4;
+
+    // Cells of every line, in cell order
+    private static final int[][] LINE_CELLS = new int[BingoCard.LINE_COUNT][BingoCard.SIZE];
+    // Lowest number of each cell's column (1, 16, 31, 46, 61)
+    private static final int[] COLUMN_BASE = new int[BingoCard.CELLS];
+
+    static {
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            COLUMN_BASE[cell] = (cell % BingoCard.SIZE) * 15 + 1;
+        }
+        for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+            int mask = BingoCard.lineMask(line);
+            for (int k = 0; k < BingoCard.SIZE; k++) {
+                LINE_CELLS[line][k] = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    // Call (1-based draw index) on which each number is drawn; unused index 0
+    private final byte[] callOfNumber = new byte[BingoCard.MAX_NUMBER + 1];
+
+    /**
+     * Constructor from an explicit draw order.
+     * @param order All 75 numbers in draw order
+     */
+    public FinishingCallSolver(int[] order) {
+        if (order.length != BingoCard.MAX_NUMBER) {
+            throw new IllegalArgumentException("A draw order needs " + BingoCard.MAX_NUMBER + " numbers");
+        }
+        for (int i = 0; i < order.length; i++) {
+            callOfNumber[order[i]] = (byte) (i + 1);
+        }
+    }
+
+    /**
+     * Constructor from a deck; uses its complete order, drawn and remaining.
+     * @param deck Shuffled deck
+     */
+    public FinishingCallSolver(DrawDeck deck) {
+        int drawn = deck.drawnCount();
+        for (int i = 0; i < drawn; i++) {
+            callOfNumber[deck.drawnAt(i)] = (byte) (i + 1);
+        }
+        for (int i = 0; i < deck.remaining(); i++) {
+            callOfNumber[deck.peek(i)] = (byte) (drawn + i + 1);
+        }
+    }
+
+    /**
+     * Solves one card.
+     * @param card Card to settle (its marks are ignored)
+     * @return Winning call in the high bits and winning line in the low 4 bits; see callOf()/lineOf()
+     */
+    public int solve(BingoCard card) {
+        int[] cellCalls = new int[BingoCard.CELLS];
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            int number = card.getNumber(cell);
+            cellCalls[cell] = number == 0 ? 0 : callOfNumber[number];  // FREE counts as already called
+        }
+        return bestLine(cellCalls);
+    }
+
+    /**
+     * Solves one card in packed form without allocating a BingoCard.
+     * @param lo Packed low word
+     * @param hi Packed high word
+     * @param cellCalls Scratch array of at least 25 ints
+     * @return Packed result, as for solve()
+     */
+    public int solvePacked(long lo, long hi, int[] cellCalls) {
+        // Walk the 4-bit slots in cell order (see BingoCard.packedLow()), skipping the FREE center
+        long bits = lo;
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            if (cell == BingoCard.FREE_CELL) {
+                cellCalls[cell] = 0;
+                continue;
+            }
+            if (cell == 17) bits = hi;  // Slot 16 is the first slot of the high word
+            cellCalls[cell] = callOfNumber[COLUMN_BASE[cell] + (int) (bits & 0xF)];
+            bits >>>= 4;
+        }
+        return bestLine(cellCalls);
+    }
+
+    // Earliest-completing line; ties go to the lowest line index, as in BingoCard
+    private static int bestLine(int[] cellCalls) {
+        int best = Integer.MAX_VALUE;
+        for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+            int[] cells = LINE_CELLS[line];
+            int done = Math.max(Math.max(cellCalls[cells[0]], cellCalls[cells[1]]),
+                    Math.max(Math.max(cellCalls[cells[2]], cellCalls[cells[3]]), cellCalls[cells[4]]));
+            int packed = (done << LINE_BITS) | line;
+            if (packed < best) best = packed;
+        }
+        return best;
+    }
+
+    /**
+     * Extracts the winning call from a packed result.
+     * @param result Value from solve()
+     * @return 1-based call on which the card wins
+     */
+    public static int callOf(int result) {
+        return result >>> LINE_BITS;
+    }
+
+    /**
+     * Extracts the winning line from a packed result.
+     * @param result Value from solve()
+     * @return Line index (0-11)
+     */
+    public static int lineOf(int result) {
+        return result & ((1 << LINE_BITS) - 1);
+    }
+
+    /**
+     * Solves a batch of packed cards, in parallel for large batches.
+     * @param packedCards Cards as (low, high) pairs
+     * @param parallel true to split the batch across all cores
+     * @return Per-card results and the earliest winners
+     */
+    public Result solveAll(long[] packedCards, boolean parallel) {
+        int count = packedCards.length / 2;
+        int[] results = new int[count];
+        IntStream indexes = IntStream.range(0, count);
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        // ThreadLocal.withInitial() needs API 26
+        ThreadLocal<int[]> scratch = new ThreadLocal<int[]>() {
+            @Override
+            protected int[] initialValue() {
+                return new int[BingoCard.CELLS];
+            }
+        };
+        indexes.forEach(i -> results[i] = solvePacked(packedCards[2 * i], packedCards[2 * i + 1], scratch.get()));
+        return new Result(results);
+    }
+
+    /**
+     * Solves a batch of cards.
+     * @param cards Cards to settle
+     * @return Per-card results and the earliest winners
+     */
+    public Result solveAll(BingoCard[] cards) {
+        int[] results = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            results[i] = solve(cards[i]);
+        }
+        return new Result(results);
+    }
+
+    /**
+     * Result class holds a batch settlement: every card's winning call and line,
+     * plus the cards that win on the earliest call.
+     */
+    public static final class Result {
+        // Packed per-card results, as returned by solve()
+        private final int[] results;
+        // Earliest winning call across the batch
+        private final int earliestCall;
+        // Indexes of the cards winning on the earliest call, ascending
+        private final int[] earliestWinners;
+
+        Result(int[] results) {
+            this.results = results;
+            int earliest = Integer.MAX_VALUE;
+            int winners = 0;
+            for (int result : results) {
+                int call = callOf(result);
+                if (call < earliest) {
+                    earliest = call;
+                    winners = 1;
+                } else if (call == earliest) {
+                    winners++;
+                }
+            }
+            int[] ids = new int[winners];
+            int n = 0;
+            for (int i = 0; i < results.length && n < winners; i++) {
+                if (callOf(results[i]) == earliest) ids[n++] = i;
+            }
+            this.earliestCall = results.length == 0 ? -1 : earliest;
+            this.earliestWinners = ids;
+        }
+
+        // Getter for the number of cards solved
+        public int size() {
+            return results.length;
+        }
+
+        // Getter for a card's winning call (1-based)
+        public int getWinningCall(int card) {
+            return callOf(results[card]);
+        }
+
+        // Getter for a card's winning line (0-11)
+        public int getWinningLine(int card) {
+            return lineOf(results[card]);
+        }
+
+        // Getter for the earliest winning call, -1 for an empty batch
+        public int getEarliestCall() {
+            return earliestCall;
+        }
+
+        // Getter for the cards winning on the earliest call (copy)
+        public int[] getEarliestWinners() {
+            return Arrays.copyOf(earliestWinners, earliestWinners.length);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package ict.mgame.bingogame;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GameEngine class owns all mutable game state (round, card, deck, stored-Bingo flag) on a
+ * single background thread, the only writer.
+ * Buttons and the auto-draw scheduler never touch that state: they queue commands on a
+ * lock-free queue and wake the engine with LockSupport.unpark(). The engine runs commands in
+ * arrival order, and after every change publishes an immutable GameSnapshot through an
+ * AtomicReference, so getSnapshot() is a single volatile read that never blocks the UI.
+ * Has no Android dependencies; listener calls arrive on the engine thread.
+ */
+public final class GameEngine implements Runnable {
+
+    /**
+     * Listener interface is told about engine changes on the engine thread.
+     */
+    public interface Listener {
+        /**
+         * Reports that a new snapshot has been published; keep this short.
+         * @param snapshot Snapshot just published
+         */
+        void onSnapshot(GameSnapshot snapshot);
+
+        /**
+         * Reports a round's first Bingo, once per round, before its snapshot is published.
+         * @param snapshot State at the Bingo
+         */
+        void onBingo(GameSnapshot snapshot);
+    }
+
+    /**
+     * PauseListener interface receives the final snapshot of a pause() on the engine thread.
+     */
+    public interface PauseListener {
+        /**
+         * Reports the state after every command queued before the pause; keep this short.
+         * @param snapshot Final snapshot until new commands arrive
+         */
+        void onPaused(GameSnapshot snapshot);
+    }
+
+    // Commands; small ints box to cached Integers, so queuing one never allocates
+    private static final int DRAW = 1;        // Manual draw: allowed until the deck is empty
+    private static final int AUTO_DRAW = 2;   // Timed auto-draw: ignored once the round is finished
+    private static final int RUN = 3;         // Turbo: draw until Bingo or the end of the deck
+    private static final int HALT = 4;        // End a turbo run
+    private static final int NEW_ROUND = 5;   // Deal a new card and deck
+    private static final int QUIT = 6;        // Stop the engine thread
+    private static final int PAUSE = 7;       // End a turbo run and hand the snapshot to a pause() caller
+
+    // Calls ahead covered by each snapshot's odds
+    public static final int ODDS_CALLS = 10;
+
+    // Receiver of engine events
+    private final Listener listener;
+    // Pending commands from any thread
+    private final ConcurrentLinkedQueue<Integer> commands = new ConcurrentLinkedQueue<>();
+    // Receivers of pause() snapshots, one per queued PAUSE command
+    private final ConcurrentLinkedQueue<PauseListener> pauses = new ConcurrentLinkedQueue<>();
+    // Latest published state
+    private final AtomicReference<GameSnapshot> snapshot = new AtomicReference<>();
+    // Engine thread
+    private final Thread thread;
+
+    // Engine-thread state below
+    // Random source for round seeds when no ready round is available
+    private final BingoRng seedRng;
+    // Ready rounds, null to deal every round on the engine thread
+    private final RoundPool pool;
+    // Side patterns reported as they complete (four corners, X, ...), or null
+    private final PatternSet patterns;
+    // Patterns complete this round, and those completed by the last draw
+    private long completedPatterns;
+    private long newPatterns;
+    // Seed of the current round, its card and deck
+    private long seed;
+    private BingoCard card;
+    private DrawDeck deck;
+    // Card in packed form and draw order, captured once per round for the snapshots
+    private long cardLow, cardHigh;
+    private byte[] deckOrder;
+    // Current round number, starts at 0 and increments per new game
+    private int roundNumber = 0;
+    // Last drawn number of the round, 0 if none
+    private int lastNumber;
+    // Flag to ensure a Bingo is reported only once per round
+    private boolean hasStoredBingo = false;
+    // true while a turbo run draws between commands
+    private boolean turbo;
+    // Bingo odds for the snapshots
+    private final OddsCalculator oddsCalculator = new OddsCalculator();
+
+    /**
+     * Constructor for GameEngine; deals the first round and publishes it before returning,
+     * so getSnapshot() never returns null.
+     * @param seedRng Random source for round seeds; used only by the engine afterwards
+     * @param listener Receiver of engine events
+     */
+    public GameEngine(BingoRng seedRng, Listener listener) {
+        this(seedRng, null, listener, null);
+    }
+
+    /**
+     * Constructor for GameEngine that resumes a saved game, dealing every new round itself.
+     * @param seedRng Random source for later round seeds; used only by the engine afterwards
+     * @param listener Receiver of engine events
+     * @param resume Snapshot to resume, null deals a new round 1
+     */
+    public GameEngine(BingoRng seedRng, Listener listener, GameSnapshot resume) {
+        this(seedRng, null, listener, resume);
+    }
+
+    /**
+     * Constructor for GameEngine that resumes a saved game exactly where it stopped: same card,
+     * marks, remaining draw order, round number and stored-Bingo flag, with nothing reshuffled.
+     * @param seedRng Random source for round seeds when the pool is empty; used only by the engine
+     * @param pool Ready rounds to take new rounds from, or null
+     * @param listener Receiver of engine events
+     * @param resume Snapshot to resume, e.g. from GameStateStore; null deals a new round 1
+     */
+    public GameEngine(BingoRng seedRng, RoundPool pool, Listener listener, GameSnapshot resume) {
+        this(seedRng, pool, null, listener, resume);
+    }
+
+    /**
+     * Constructor for GameEngine that also tracks win patterns. Bingo stays the line win;
+     * each snapshot carries the active patterns complete so far and those the draw completed.
+     * @param seedRng Random source for round seeds when the pool is empty; used only by the engine
+     * @param pool Ready rounds to take new rounds from, or null
+     * @param patterns Active patterns, or null for none
+     * @param listener Receiver of engine events
+     * @param resume Snapshot to resume, e.g. from GameStateStore; null deals a new round 1
+     */
+    public GameEngine(BingoRng seedRng, RoundPool pool, PatternSet patterns, Listener listener, GameSnapshot resume) {
+        this.seedRng = seedRng;
+        this.pool = pool;
+        this.patterns = patterns;
+        this.listener = listener;
+        if (resume == null) {
+            dealRound();
+            snapshot.set(currentSnapshot());
+        } else {
+            roundNumber = resume.getRound();
+            seed = resume.getSeed();
+            cardLow = resume.getCardLow();
+            cardHigh = resume.getCardHigh();
+            card = BingoCard.unpack(cardLow, cardHigh);
+            card.restoreMarks(resume.getMarks());
+            deckOrder = resume.getDeckOrder();
+            deck = new DrawDeck(deckOrder, resume.getDrawnCount());
+            lastNumber = resume.getLastNumber();
+            hasStoredBingo = resume.isStoredBingo();
+            // Patterns are not saved; the marks tell which are complete
+            completedPatterns = patterns != null ? patterns.evaluateAll(resume.getMarks()) : 0;
+            // Same state as the saved snapshot, plus the odds, which are not saved
+            snapshot.set(currentSnapshot());
+        }
+        thread = new Thread(this, "GameEngine");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the engine thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    // Queues a command and wakes the engine
+    private void send(int command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Queues a manual draw; ignored once the deck is empty.
+     */
+    public void draw() {
+        send(DRAW);
+    }
+
+    /**
+     * Queues one auto-draw; ignored once the round has a Bingo or the deck is empty.
+     */
+    public void autoDraw() {
+        send(AUTO_DRAW);
+    }
+
+    /**
+     * Queues a turbo run: the engine draws as fast as it can until Bingo, the end of the deck,
+     * halt() or another command that changes the round.
+     */
+    public void runToEnd() {
+        send(RUN);
+    }
+
+    /**
+     * Queues the end of a turbo run.
+     */
+    public void halt() {
+        send(HALT);
+    }
+
+    /**
+     * Queues a new round with a new card and deck; also ends a turbo run.
+     */
+    public void newGame() {
+        send(NEW_ROUND);
+    }
+
+    /**
+     * Queues the end of any turbo run without waiting for it. Once the engine has run every
+     * command queued before this call, it hands the resulting snapshot to the listener on the
+     * engine thread: a Bingo reached on the way has already been reported and is marked
+     * stored, so the snapshot is final until new commands arrive. Used before saving the game.
+     * @param pauseListener Receiver of the final snapshot; called at once if the engine has stopped
+     */
+    public void pause(PauseListener pauseListener) {
+        if (!thread.isAlive()) {
+            pauseListener.onPaused(snapshot.get());
+            return;
+        }
+        pauses.add(pauseListener);
+        send(PAUSE);
+    }
+
+    /**
+     * Returns the latest state without blocking.
+     * @return Latest snapshot
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Runs every command queued so far, then stops the engine thread and waits for it.
+     */
+    public void shutdown() {
+        send(QUIT);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            Integer command = commands.poll();
+            if (command == null) {
+                if (turbo) {
+                    // Commands are checked between turbo draws, so halt() takes effect at once
+                    drawNumber(true);
+                } else {
+                    LockSupport.park(this);
+                }
+                continue;
+            }
+            switch (command) {
+                case QUIT:
+                    // A pause() that raced with shutdown() still gets the final snapshot
+                    PauseListener waiting;
+                    while ((waiting = pauses.poll()) != null) {
+                        waiting.onPaused(snapshot.get());
+                    }
+                    return;
+                case DRAW:
+                    drawNumber(false);
+                    break;
+                case AUTO_DRAW:
+                    if (!isFinished()) drawNumber(false);
+                    break;
+                case RUN:
+                    turbo = !isFinished();
+                    break;
+                case HALT:
+                    turbo = false;
+                    break;
+                case PAUSE:
+                    turbo = false;
+                    PauseListener paused = pauses.poll();
+                    if (paused != null) paused.onPaused(snapshot.get());
+                    break;
+                case NEW_ROUND:
+                    dealRound();
+                    publish(currentSnapshot());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // Whether auto-draw has nothing left to do this round
+    private boolean isFinished() {
+        return card.hasBingo() || deck.isEmpty();
+    }
+
+    /**
+     * Draws the next number, marks the card, reports a first Bingo and publishes the result.
+     * @param turboDraw Whether the draw belongs to a turbo run, which ends with the round
+     */
+    private void drawNumber(boolean turboDraw) {
+        if (deck.isEmpty()) {
+            turbo = false;
+            return;
+        }
+        long start = Metrics.start();
+        // Draw the next number of the shuffled deck
+        lastNumber = deck.draw();
+        // Mark the drawn number if it is on the card (reverse index lookup)
+        long markStart = Metrics.start();
+        int cell = card.mark(lastNumber);
+        newPatterns = cell >= 0 && patterns != null ? patterns.evaluate(card.getMarks(), cell, completedPatterns) : 0;
+        completedPatterns |= newPatterns;
+        Metrics.WIN_CHECK.recordSince(markStart);
+        if (turboDraw && isFinished()) turbo = false;
+        // Report a Bingo only once per round; the snapshot already carries the stored flag
+        boolean newBingo = card.hasBingo() && !hasStoredBingo;
+        if (newBingo) hasStoredBingo = true;
+        GameSnapshot next = currentSnapshot();
+        if (newBingo) {
+            Metrics.count(Metrics.WINS, 1);
+            listener.onBingo(next);
+        }
+        Metrics.count(Metrics.DRAWS, 1);
+        Metrics.DRAW.recordSince(start);
+        publish(next);
+    }
+
+    // Takes a ready round from the pool, or deals one from a fresh seed on a miss
+    private void dealRound() {
+        long start = Metrics.start();
+        roundNumber++;  // Increment round for new game
+        hasStoredBingo = false;  // Reset for new game
+        completedPatterns = 0;
+        newPatterns = 0;
+        turbo = false;
+        lastNumber = 0;
+        // Card numbers in the standard column ranges, then the shuffled draw order
+        BingoRound round = pool != null ? pool.poll() : null;
+        if (round == null) round = BingoRound.create(BingoRound.newSeed(seedRng));
+        seed = round.getSeed();
+        card = round.getCard();
+        deck = round.getDeck();
+        cardLow = card.packedLow();
+        cardHigh = card.packedHigh();
+        deckOrder = deck.copyOrder();
+        Metrics.NEW_CARD.recordSince(start);
+    }
+
+    // Captures the current state, with the odds of a Bingo within the next ODDS_CALLS calls
+    private GameSnapshot currentSnapshot() {
+        long start = Metrics.start();
+        double[] odds = oddsCalculator.curve(card.getMarks(), deck.remaining(), ODDS_CALLS);
+        Metrics.ODDS.recordSince(start);
+        return new GameSnapshot(roundNumber, seed, cardLow, cardHigh, card.getMarks(),
+                card.getWinningLine(), lastNumber, deck.drawnCount(), hasStoredBingo, completedPatterns,
+                newPatterns, deckOrder, odds);
+    }
+
+    // Publishes a snapshot and tells the listener
+    private void publish(GameSnapshot next) {
+        snapshot.set(next);
+        listener.onSnapshot(next);
+    }
+}
@@ -3,17 +3,29 @@ package ict.mgame.bingogame;
 /**
  * GameInfo class is a data model for storing Bingo game information.
  * It holds username, round number, winning numbers as a string, and timestamp.
+ * Newer rows also hold the packed winning card with its winning-line and marks masks.
  * Used for mapping to/from database records.
  */
 public class GameInfo {
+    // Row id in the gameinfo table, 0 until the row has been stored
+    private long id;
     // Username of the player
     private String username;
     // Round number of the game
     private int round;
-    // Comma-separated string of winning numbers (e.g., "1,16,FREE,46,61")
+    // Comma-separated string of winning numbers (e.g., "1,16,FREE,46,61");
+    // for rows that store the card it is built from the card on first use
     private String winningNumbers;  // Comma-separated string of the 5 winning numbers (e.g., "1,16,FREE,46,61")
     // Timestamp of when the game was won (in milliseconds)
     private long timestamp;  // System time in milliseconds
+    // Seed the round was built from, BingoRound.NO_SEED for rounds recorded without one
+    private long seed;
+    // Winning card in BingoCard's packed form; both 0 when the row has no card
+    private long cardLow;
+    private long cardHigh;
+    // 25-bit masks of the winning line's cells and of all marked cells
+    private int winMask;
+    private int marksMask;
 
     /**
      * Constructor to create a GameInfo object.
@@ -29,6 +41,19 @@ public class GameInfo {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Constructor to create a GameInfo object for a seeded round.
+     * @param username Player's username
+     * @param round Game round number
+     * @param winningNumbers Winning line numbers as string
+     * @param timestamp Time of win
+     * @param seed Seed that rebuilds the round's card and draws
+     */
+    public GameInfo(String username, int round, String winningNumbers, long timestamp, long seed) {
+        this(username, round, winningNumbers, timestamp);
+        this.seed = seed;
+    }
+
     // Getter for username
     public String getUsername() {
         return username;
@@ -49,8 +74,11 @@ public class GameInfo {
         this.round = round;
     }
 
-    // Getter for winning numbers
+    // Getter for winning numbers, formatted from the card for rows stored without the text
     public String getWinningNumbers() {
+        if (winningNumbers == null && hasCard()) {
+            winningNumbers = BingoCard.formatNumbers(cardLow, cardHigh, winMask);
+        }
         return winningNumbers;
     }
 
@@ -68,4 +96,102 @@ public class GameInfo {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+
+    // Getter for seed
+    public long getSeed() {
+        return seed;
+    }
+
+    // Setter for seed
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    // Getter for id
+    public long getId() {
+        return id;
+    }
+
+    // Setter for id
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Records the winning card and marks; the winning numbers are then derived from them.
+     * @param card Card at the moment of the win
+     */
+    public void setCard(BingoCard card) {
+        setCard(card.packedLow(), card.packedHigh(), BingoCard.lineMask(card.getWinningLine()), card.getMarks());
+    }
+
+    /**
+     * Records the winning card in packed form.
+     * @param cardLow Packed low word
+     * @param cardHigh Packed high word
+     * @param winMask Cell mask of the winning line
+     * @param marksMask Cell mask of the marked cells
+     */
+    public void setCard(long cardLow, long cardHigh, int winMask, int marksMask) {
+        this.cardLow = cardLow;
+        this.cardHigh = cardHigh;
+        this.winMask = winMask;
+        this.marksMask = marksMask;
+    }
+
+    // A valid packed card never has a zero low word (its first column has distinct offsets)
+    public boolean hasCard() {
+        return cardLow != 0;
+    }
+
+    // Getter for the packed card's low word
+    public long getCardLow() {
+        return cardLow;
+    }
+
+    // Getter for the packed card's high word
+    public long getCardHigh() {
+        return cardHigh;
+    }
+
+    // Getter for the winning line's cell mask
+    public int getWinMask() {
+        return winMask;
+    }
+
+    // Getter for the marked cells mask
+    public int getMarksMask() {
+        return marksMask;
+    }
+
+    /**
+     * Copies the numbers of the winning line (without FREE) into an array.
+     * Uses the packed card when present and parses the text otherwise.
+     * @param dest Destination with room for BingoCard.SIZE numbers
+     * @return Number of numbers copied
+     */
+    public int getWinningNumbers(int[] dest) {
+        int count = 0;
+        if (hasCard()) {
+            int mask = winMask;
+            while (mask != 0) {
+                int cell = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                if (cell != BingoCard.FREE_CELL) {
+                    dest[count++] = BingoCard.unpackNumber(cardLow, cardHigh, cell);
+                }
+            }
+        } else if (winningNumbers != null) {
+            for (String part : winningNumbers.split(",")) {
+                try {
+                    dest[count] = Integer.parseInt(part.trim());
+                    count++;
+                } catch (NumberFormatException e) {
+                    // "FREE" (or anything else that is not a number) is skipped
+                }
+                if (count == dest.length) break;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,307 @@
+package ict.mgame.bingogame;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameInfoWriter class moves game history writes off the UI thread (write-behind).
+ * Submitted rows go into a bounded queue that a single background thread drains into
+ * batched transactions on one long-lived DBHelper connection. A full queue blocks the
+ * submitter (backpressure), or for offer() only up to a timeout, and close() writes everything still queued before returning.
+ * A failed transaction is rolled back and its rows are kept and retried, never counted as
+ * written; while they are retried no new rows are taken, so the backpressure reaches
+ * submit(). A batch that keeps failing is written row by row and the rows that still fail
+ * are set aside, so one bad row cannot hold back the rows behind it. flush() and close()
+ * report whether every row reached the database.
+ */
+public class GameInfoWriter {
+
+    // Log tag
+    private static final String TAG = "GameInfoWriter";
+    // Default number of rows that may wait in the queue
+    private static final int DEFAULT_CAPACITY = 1024;
+    // Maximum rows per transaction
+    private static final int MAX_BATCH = 256;
+    // Queued by close() behind the last real row to stop the worker
+    private static final GameInfo END_OF_QUEUE = new GameInfo(null, 0, null, 0);
+    // How long close() waits for the queue to drain
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    // Pause before retrying a failed batch
+    private static final long RETRY_DELAY_MS = 500;
+    // Failed attempts at a whole batch before its rows are written one by one
+    private static final int BATCH_ATTEMPTS = 3;
+
+    // Database helper the rows are written through
+    private final DBHelper dbHelper;
+    // Rows waiting to be written
+    private final BlockingQueue<GameInfo> queue;
+    // Single background thread running the drain loop
+    private final ExecutorService executor;
+    // Serializes submit() against close() so no row is queued after the worker may have stopped
+    private final Object submitLock = new Object();
+    // Set by close(); no new rows are accepted afterwards, guarded by submitLock
+    private boolean closed = false;
+    // Rows accepted so far
+    private final AtomicLong submitted = new AtomicLong();
+    // Rows the worker has taken from the queue (written or awaiting retry), guarded by this
+    private long processed = 0;
+    // Rows whose last write failed and that are awaiting retry, guarded by this
+    private int failing = 0;
+    // Rows set aside because they failed on their own, guarded by this
+    private long rejected = 0;
+    // Pending flush(FlushListener) calls and the row count each waits for, guarded by this
+    private final List<FlushListener> flushListeners = new ArrayList<>();
+    private final List<Long> flushTargets = new ArrayList<>();
+
+    /**
+     * FlushListener interface is told when the rows submitted before a flush are processed.
+     */
+    public interface FlushListener {
+        /**
+         * Called on the writer thread, or on the caller's if nothing was pending.
+         * @param written true if every row is in the database, false if a write is failing
+         *                or a row has been set aside
+         */
+        void onFlushed(boolean written);
+    }
+
+    /**
+     * Constructor for GameInfoWriter with the default queue capacity.
+     * @param dbHelper Database helper to write through; closed by close()
+     */
+    public GameInfoWriter(DBHelper dbHelper) {
+        this(dbHelper, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for GameInfoWriter.
+     * @param dbHelper Database helper to write through; closed by close()
+     * @param capacity Maximum number of queued rows before submit() blocks
+     */
+    public GameInfoWriter(DBHelper dbHelper, int capacity) {
+        this.dbHelper = dbHelper;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        executor.execute(this::drainLoop);
+    }
+
+    /**
+     * Queues a row for writing, blocking while the queue is full.
+     * @param gameInfo Row to write
+     * @throws IllegalStateException if the writer has been closed
+     */
+    public void submit(GameInfo gameInfo) throws InterruptedException {
+        synchronized (submitLock) {
+            if (closed) throw new IllegalStateException("GameInfoWriter is closed");
+            queue.put(gameInfo);
+            submitted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Queues a row for writing, waiting at most the given time for room in the queue.
+     * @param gameInfo Row to write
+     * @param timeout How long to wait for room
+     * @param unit Unit of timeout
+     * @return true if the row was queued, false if the queue stayed full
+     * @throws IllegalStateException if the writer has been closed
+     */
+    public boolean offer(GameInfo gameInfo, long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (submitLock) {
+            if (closed) throw new IllegalStateException("GameInfoWriter is closed");
+            if (!queue.offer(gameInfo, timeout, unit)) return false;
+            submitted.incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Waits until every row submitted so far has been processed.
+     * @return true if they are all in the database, false if a write is failing, in which
+     *         case its rows stay queued for retry, or a row has been set aside
+     */
+    public synchronized boolean flush() throws InterruptedException {
+        long target = submitted.get();
+        while (processed < target) {
+            wait();
+        }
+        return allWritten();
+    }
+
+    /**
+     * Tells a listener once every row submitted so far has been processed, without blocking.
+     * @param listener Listener to call
+     */
+    public void flush(FlushListener listener) {
+        long target = submitted.get();
+        boolean written;
+        synchronized (this) {
+            if (processed < target) {
+                flushListeners.add(listener);
+                flushTargets.add(target);
+                return;
+            }
+            written = allWritten();
+        }
+        listener.onFlushed(written);
+    }
+
+    /**
+     * Stops accepting rows, writes everything still queued, then closes the database.
+     * Blocks for up to CLOSE_TIMEOUT_SECONDS; call it off the UI thread.
+     * @return true if every submitted row reached the database
+     */
+    public boolean close() {
+        synchronized (submitLock) {
+            if (closed) return flushedAll();
+            closed = true;
+            try {
+                queue.put(END_OF_QUEUE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Log.w(TAG, "Timed out with " + queue.size() + " rows still queued");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dbHelper.close();
+        return flushedAll();
+    }
+
+    // Whether every submitted row has been written
+    private synchronized boolean flushedAll() {
+        return processed == submitted.get() && allWritten();
+    }
+
+    // Whether every processed row has been written, guarded by this
+    private boolean allWritten() {
+        return failing == 0 && rejected == 0;
+    }
+
+    /**
+     * Worker loop: takes the next row, adds whatever else is queued, and writes them
+     * in one transaction. A failed batch is retried on its own after RETRY_DELAY_MS; after
+     * BATCH_ATTEMPTS failures its rows are written one by one and those that fail are set
+     * aside. Runs until it reaches the end-of-queue marker from close().
+     */
+    private void drainLoop() {
+        List<GameInfo> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        // Failed attempts at the current batch
+        int attempts = 0;
+        while (running || !batch.isEmpty()) {
+            // Rows taken from the queue this time round
+            int fresh = 0;
+            if (batch.isEmpty()) {
+                GameInfo next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    // Only close() ends the loop, so rows are never dropped
+                    continue;
+                }
+                batch.add(next);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                int last = batch.size() - 1;
+                if (batch.get(last) == END_OF_QUEUE) {
+                    batch.remove(last);
+                    running = false;
+                }
+                fresh = batch.size();
+            } else {
+                // Retrying: nothing new is taken, so a full queue holds back submit()
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException e) {
+                    // Retry at once
+                }
+            }
+            boolean written = batch.isEmpty() || write(batch);
+            int setAside = 0;
+            if (!written && ++attempts >= BATCH_ATTEMPTS) {
+                setAside = writeEach(batch);
+                written = true;
+            }
+            synchronized (this) {
+                processed += fresh;
+                failing = written ? 0 : batch.size();
+                rejected += setAside;
+                notifyAll();
+            }
+            if (written) {
+                batch.clear();
+                attempts = 0;
+            }
+            notifyFlushListeners();
+        }
+    }
+
+    /**
+     * Writes the rows of a failing batch one at a time, so only the bad ones are lost.
+     * @param batch Rows to write
+     * @return Number of rows set aside because they failed on their own
+     */
+    private int writeEach(List<GameInfo> batch) {
+        int setAside = 0;
+        for (GameInfo gameInfo : batch) {
+            if (!write(Collections.singletonList(gameInfo))) {
+                Log.e(TAG, "Setting aside the row of round " + gameInfo.getRound());
+                setAside++;
+            }
+        }
+        return setAside;
+    }
+
+    /**
+     * Writes a batch in one transaction; on failure nothing of it is stored.
+     * @param batch Rows to write
+     * @return true if the transaction committed
+     */
+    private boolean write(List<GameInfo> batch) {
+        try {
+            dbHelper.insertGameInfoBatch(batch);
+            return true;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to write " + batch.size() + " rows", e);
+            return false;
+        }
+    }
+
+    // Calls, outside the lock, every flush listener whose rows have all been processed
+    private void notifyFlushListeners() {
+        List<FlushListener> due = null;
+        boolean written;
+        synchronized (this) {
+            written = allWritten();
+            for (int i = flushListeners.size() - 1; i >= 0; i--) {
+                if (flushTargets.get(i) <= processed) {
+                    if (due == null) due = new ArrayList<>();
+                    due.add(flushListeners.remove(i));
+                    flushTargets.remove(i);
+                }
+            }
+        }
+        if (due == null) return;
+        for (int i = due.size() - 1; i >= 0; i--) {
+            due.get(i).onFlushed(written);
+        }
+    }
+}
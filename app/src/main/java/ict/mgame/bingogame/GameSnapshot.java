@@ -0,0 +1,171 @@
+package ict.mgame.bingogame;
+
+/**
+ * GameSnapshot class is an immutable picture of the game after one engine step.
+ * GameEngine builds a new one after every change and publishes it whole, so any thread can
+ * read a snapshot without locks and always sees a consistent card, marks and draw state.
+ * The card is kept in BingoCard's packed form: two longs instead of a 25-element array.
+ */
+public final class GameSnapshot {
+
+    // Round number, 1 for the first round
+    private final int round;
+    // Seed the round was built from
+    private final long seed;
+    // Packed card numbers
+    private final long cardLow, cardHigh;
+    // 25-bit mask of marked cells, FREE included
+    private final int marks;
+    // Last drawn number, 0 before the first draw of the round
+    private final int lastNumber;
+    // Numbers drawn so far in the round
+    private final int drawnCount;
+    // First completed line (0-11), -1 without Bingo
+    private final int winningLine;
+    // Whether the round's Bingo has already been reported and stored
+    private final boolean storedBingo;
+    // Bits of the engine's active PatternSet complete so far, and those completed by the last draw
+    private final long completedPatterns;
+    private final long newPatterns;
+    // The round's full draw order, shared by every snapshot of the round and never modified
+    private final byte[] deckOrder;
+    // Chance of a Bingo within 0..n calls, null if not computed; never modified
+    private final double[] odds;
+
+    /**
+     * Constructor for GameSnapshot.
+     * @param round Round number
+     * @param seed Round seed
+     * @param cardLow Packed low word of the card
+     * @param cardHigh Packed high word of the card
+     * @param marks Marked cells
+     * @param winningLine First completed line, -1 if none
+     * @param lastNumber Last drawn number, 0 if none
+     * @param drawnCount Numbers drawn so far
+     * @param storedBingo Whether the Bingo has been reported
+     * @param completedPatterns Active patterns complete so far, as PatternSet bits
+     * @param newPatterns Active patterns completed by the last draw
+     * @param deckOrder Draw order of the round; kept, not copied
+     * @param odds Chance of a Bingo within 0..n calls, or null; kept, not copied
+     */
+    GameSnapshot(int round, long seed, long cardLow, long cardHigh, int marks, int winningLine,
+                 int lastNumber, int drawnCount, boolean storedBingo, long completedPatterns,
+                 long newPatterns, byte[] deckOrder, double[] odds) {
+        this.round = round;
+        this.seed = seed;
+        this.cardLow = cardLow;
+        this.cardHigh = cardHigh;
+        this.marks = marks;
+        this.winningLine = winningLine;
+        this.lastNumber = lastNumber;
+        this.drawnCount = drawnCount;
+        this.storedBingo = storedBingo;
+        this.completedPatterns = completedPatterns;
+        this.newPatterns = newPatterns;
+        this.deckOrder = deckOrder;
+        this.odds = odds;
+    }
+
+    // Getter for the number at a cell (0 for the FREE center)
+    public int getNumber(int cell) {
+        return BingoCard.unpackNumber(cardLow, cardHigh, cell);
+    }
+
+    // Getter for whether a cell is marked
+    public boolean isMarked(int cell) {
+        return (marks & (1 << cell)) != 0;
+    }
+
+    // Getter for whether the card has a Bingo
+    public boolean hasBingo() {
+        return winningLine >= 0;
+    }
+
+    // Getter for whether every number has been drawn
+    public boolean isDeckEmpty() {
+        return drawnCount == BingoCard.MAX_NUMBER;
+    }
+
+    // Getter for whether the round is over for auto-draw: Bingo or an empty deck
+    public boolean isFinished() {
+        return hasBingo() || isDeckEmpty();
+    }
+
+    /**
+     * Checks whether another snapshot shows the same card, i.e. the same round.
+     * @param other Snapshot to compare, may be null
+     * @return true if both have the same round and card numbers
+     */
+    public boolean sameCard(GameSnapshot other) {
+        return other != null && other.round == round && other.cardLow == cardLow && other.cardHigh == cardHigh;
+    }
+
+    // Getter for round
+    public int getRound() {
+        return round;
+    }
+
+    // Getter for seed
+    public long getSeed() {
+        return seed;
+    }
+
+    // Getter for the packed low word of the card
+    public long getCardLow() {
+        return cardLow;
+    }
+
+    // Getter for the packed high word of the card
+    public long getCardHigh() {
+        return cardHigh;
+    }
+
+    // Getter for the marks mask
+    public int getMarks() {
+        return marks;
+    }
+
+    // Getter for the last drawn number
+    public int getLastNumber() {
+        return lastNumber;
+    }
+
+    // Getter for the number of draws in the round
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    // Getter for the winning line
+    public int getWinningLine() {
+        return winningLine;
+    }
+
+    // Getter for storedBingo
+    public boolean isStoredBingo() {
+        return storedBingo;
+    }
+
+    /**
+     * Returns the chance of a Bingo within the next calls, as computed by the engine.
+     * @param calls Number of calls ahead
+     * @return Probability in [0, 1], or NaN if not computed for that many calls
+     */
+    public double getOdds(int calls) {
+        return odds != null && calls >= 0 && calls < odds.length ? odds[calls] : Double.NaN;
+    }
+
+    // Getter for the active patterns complete so far (PatternSet bits, 0 without a PatternSet)
+    public long getCompletedPatterns() {
+        return completedPatterns;
+    }
+
+    // Getter for the active patterns completed by the last draw
+    public long getNewPatterns() {
+        return newPatterns;
+    }
+
+    // Getter for the shared draw order; callers must not modify it
+    byte[] getDeckOrder() {
+        return deckOrder;
+    }
+}
@@ -0,0 +1,132 @@
+package ict.mgame.bingogame;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * GameStateStore class saves a GameSnapshot as a fixed 113-byte binary record, for the
+ * instance-state Bundle and for a small file that survives process death.
+ * The record holds everything needed to resume without rebuilding or reshuffling: the packed
+ * card, marks, seed, round number, stored-Bingo flag and the deck's draw order with its cursor.
+ * Files are replaced atomically (write a temporary file, then rename over the old one) and
+ * read through a memory map; a CRC32 rejects torn or foreign files, which start a new game.
+ *
+ * Layout (big-endian): magic "BGS1", round:int, seed:long, card:12 bytes (as in
+ * BingoCard.packedToBytes), marks:int, cursor:u8, flags:u8, order:75 bytes, crc32:int.
+ */
+public final class GameStateStore {
+
+    // Magic bytes at the start of a record ("BGS1")
+    private static final int MAGIC = 0x42475331;
+    // Flag bits
+    private static final int FLAG_STORED_BINGO = 1;
+    // Record size in bytes
+    public static final int STATE_BYTES = 4 + 4 + 8 + BingoCard.PACKED_BYTES + 4 + 1 + 1 + BingoCard.MAX_NUMBER + 4;
+
+    /**
+     * Encodes a snapshot.
+     * @param snapshot Snapshot to save
+     * @return STATE_BYTES bytes
+     */
+    public static byte[] encode(GameSnapshot snapshot) {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_BYTES);
+        buffer.putInt(MAGIC)
+                .putInt(snapshot.getRound())
+                .putLong(snapshot.getSeed())
+                .putLong(snapshot.getCardLow())
+                .putInt((int) snapshot.getCardHigh())
+                .putInt(snapshot.getMarks())
+                .put((byte) snapshot.getDrawnCount())
+                .put((byte) (snapshot.isStoredBingo() ? FLAG_STORED_BINGO : 0))
+                .put(snapshot.getDeckOrder());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a record written by encode().
+     * @param data Record bytes, may be null
+     * @return Snapshot, or null if the record is missing, corrupt or inconsistent
+     */
+    public static GameSnapshot decode(byte[] data) {
+        if (data == null || data.length != STATE_BYTES) return null;
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, STATE_BYTES - 4);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(STATE_BYTES - 4) != (int) crc.getValue()) return null;
+
+        buffer.position(4);
+        int round = buffer.getInt();
+        long seed = buffer.getLong();
+        long cardLow = buffer.getLong();
+        long cardHigh = buffer.getInt() & 0xFFFFFFFFL;
+        int marks = buffer.getInt();
+        int cursor = buffer.get() & 0xFF;
+        int flags = buffer.get() & 0xFF;
+        byte[] order = new byte[BingoCard.MAX_NUMBER];
+        buffer.get(order);
+        if (cardLow == 0 || cursor > order.length) return null;
+        try {
+            new DrawDeck(order, cursor);  // Checks the order is a permutation of 1-75
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        // Derived fields: the winning line from the marks, the last number from the deck
+        int winningLine = -1;
+        for (int line = 0; line < BingoCard.LINE_COUNT && winningLine < 0; line++) {
+            if ((marks & BingoCard.lineMask(line)) == BingoCard.lineMask(line)) winningLine = line;
+        }
+        int lastNumber = cursor == 0 ? 0 : order[cursor - 1];
+        return new GameSnapshot(round, seed, cardLow, cardHigh, marks, winningLine, lastNumber, cursor,
+                (flags & FLAG_STORED_BINGO) != 0, 0, 0, order, null);
+    }
+
+    /**
+     * Saves a snapshot to a file, atomically replacing any earlier save.
+     * @param file Destination file
+     * @param snapshot Snapshot to save
+     * @throws IOException if the file cannot be written or replaced
+     */
+    public static void save(File file, GameSnapshot snapshot) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(encode(snapshot));
+            // On disk before the rename, so the rename never exposes a partial file
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    /**
+     * Loads a snapshot saved by save().
+     * @param file Saved file
+     * @return Snapshot, or null if there is no valid save
+     */
+    public static GameSnapshot load(File file) {
+        if (file.length() != STATE_BYTES) return null;
+        try (FileInputStream in = new FileInputStream(file);
+             FileChannel channel = in.getChannel()) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, STATE_BYTES);
+            byte[] data = new byte[STATE_BYTES];
+            map.get(data);
+            return decode(data);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private GameStateStore() {
+    }
+}
@@ -1,34 +1,52 @@
 package ict.mgame.bingogame;
 
 import android.app.Activity;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
 
+import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * HistoryActivity class displays the history of Bingo wins.
- * It loads data from the database, populates a RecyclerView, and provides a back button.
+ * Rows are loaded page by page on a background thread as the list scrolls, using keyset
+ * paging on (timestamp, id), and only a bounded window of pages is kept in memory:
+ * loading past either end drops the pages at the opposite end.
  */
 public class HistoryActivity extends Activity {
 
+    // Rows per database page
+    private static final int PAGE_SIZE = 50;
+    // Maximum rows held in memory
+    private static final int MAX_ROWS = PAGE_SIZE * 4;
+    // Load the next page when the visible rows come this close to an end of the window
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
     // RecyclerView for displaying history items
     private RecyclerView recyclerHistory;
+    // Layout manager, queried for the visible range while scrolling
+    private LinearLayoutManager layoutManager;
     // Database helper instance
     private DBHelper dbHelper;
-    // List to hold GameInfo objects
-    private List<GameInfo> gameInfoList = new ArrayList<>();
+    // Current window of rows, newest first; copies of it are submitted to the adapter
+    private List<HistoryItem> window = new ArrayList<>();
     // Adapter for the RecyclerView
     private HistoryAdapter adapter;
+    // Background thread for database queries
+    private ExecutorService loader;
+    // true while a page query or its list diff is running (UI thread only)
+    private boolean loading = false;
+    // true when rows newer than the window exist (dropped from the head)
+    private boolean hasNewer = false;
+    // true until a query for older rows comes back short
+    private boolean hasOlder = true;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,16 +58,26 @@ public class HistoryActivity extends Activity {
         recyclerHistory = findViewById(R.id.recycler_history);
         Button btnBack = findViewById(R.id.btn_back_history);
 
-        // Initialize database helper
+        // Initialize database helper and the query thread
         dbHelper = new DBHelper(this);
+        loader = Executors.newSingleThreadExecutor();
 
         // Set up RecyclerView with linear layout manager
-        recyclerHistory.setLayoutManager(new LinearLayoutManager(this));
+        layoutManager = new LinearLayoutManager(this);
+        recyclerHistory.setLayoutManager(layoutManager);
         // Create and set adapter
-        adapter = new HistoryAdapter(gameInfoList);
+        adapter = new HistoryAdapter();
         recyclerHistory.setAdapter(adapter);
 
-        // Load history data from database
+        // Load more rows as either end of the window scrolls into view
+        recyclerHistory.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadPagesNearVisible();
+            }
+        });
+
+        // Load the newest page of history
         loadHistory();
 
         // Set click listener for back button
@@ -62,28 +90,153 @@ public class HistoryActivity extends Activity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Drop pending queries; a running one finishes and its result is ignored
+        loader.shutdownNow();
+        dbHelper.close();
+    }
+
     /**
-     * Loads all game history from the database into the list and notifies adapter.
+     * Loads the newest page of game history in the background.
      */
     private void loadHistory() {
-        // Clear existing list
-        gameInfoList.clear();
-        // Get cursor with all records
-        Cursor cursor = dbHelper.getAllGameInfo();
-        if (cursor.moveToFirst()) {
-            do {
-                // Extract data from cursor
-                String username = cursor.getString(cursor.getColumnIndexOrThrow(DBHelper.COLUMN_USERNAME));
-                int round = cursor.getInt(cursor.getColumnIndexOrThrow(DBHelper.COLUMN_ROUND));
-                String winningNumbers = cursor.getString(cursor.getColumnIndexOrThrow(DBHelper.COLUMN_WINNING_NUMBERS));
-                long timestamp = cursor.getLong(cursor.getColumnIndexOrThrow(DBHelper.COLUMN_TIMESTAMP));
-                // Add to list
-                gameInfoList.add(new GameInfo(username, round, winningNumbers, timestamp));
-            } while (cursor.moveToNext());
+        loading = true;
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = Metrics.start();
+                final List<HistoryItem> page = toItems(dbHelper.getGameInfoFirstPage(PAGE_SIZE));
+                Metrics.HISTORY_PAGE.recordSince(start);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isDestroyed()) return;
+                        appendOlder(page);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Starts loading a page if the visible rows are near an end of the window that has more data.
+     */
+    private void loadPagesNearVisible() {
+        if (loading || window.isEmpty()) return;
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (hasOlder && last >= window.size() - 1 - PREFETCH_DISTANCE) {
+            loadOlder();
+        } else if (hasNewer && first != RecyclerView.NO_POSITION && first <= PREFETCH_DISTANCE) {
+            loadNewer();
         }
-        // Close cursor
-        cursor.close();
-        // Notify adapter of data change
-        adapter.notifyDataSetChanged();
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the page of rows just older than the window's last row.
+     */
+    private void loadOlder() {
+        HistoryItem oldest = window.get(window.size() - 1);
+        final long timestamp = oldest.getTimestamp();
+        final long id = oldest.getId();
+        loading = true;
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = Metrics.start();
+                final List<HistoryItem> page = toItems(dbHelper.getGameInfoPageBefore(timestamp, id, PAGE_SIZE));
+                Metrics.HISTORY_PAGE.recordSince(start);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isDestroyed()) return;
+                        appendOlder(page);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Loads the page of rows just newer than the window's first row.
+     */
+    private void loadNewer() {
+        HistoryItem newest = window.get(0);
+        final long timestamp = newest.getTimestamp();
+        final long id = newest.getId();
+        loading = true;
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = Metrics.start();
+                final List<HistoryItem> page = toItems(dbHelper.getGameInfoPageAfter(timestamp, id, PAGE_SIZE));
+                Metrics.HISTORY_PAGE.recordSince(start);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isDestroyed()) return;
+                        prependNewer(page);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Builds display items for a page of rows; called on the loading thread.
+     * @param rows Rows read from the database
+     * @return Items in the same order
+     */
+    private static List<HistoryItem> toItems(List<GameInfo> rows) {
+        List<HistoryItem> items = new ArrayList<>(rows.size());
+        for (GameInfo info : rows) {
+            items.add(new HistoryItem(info));
+        }
+        return items;
+    }
+
+    /**
+     * Adds a page at the tail of the window and trims the head if the window is full.
+     * @param page Rows older than the current window, newest first
+     */
+    private void appendOlder(List<HistoryItem> page) {
+        hasOlder = page.size() == PAGE_SIZE;
+        window.addAll(page);
+        int excess = window.size() - MAX_ROWS;
+        if (excess > 0) {
+            window.subList(0, excess).clear();
+            hasNewer = true;
+        }
+        submitWindow();
+    }
+
+    /**
+     * Adds a page at the head of the window and trims the tail if the window is full.
+     * @param page Rows newer than the current window, newest first
+     */
+    private void prependNewer(List<HistoryItem> page) {
+        hasNewer = page.size() == PAGE_SIZE;
+        window.addAll(0, page);
+        int excess = window.size() - MAX_ROWS;
+        if (excess > 0) {
+            window.subList(window.size() - excess, window.size()).clear();
+            hasOlder = true;
+        }
+        submitWindow();
+    }
+
+    /**
+     * Hands a snapshot of the window to the adapter; the next page may load once the
+     * diff has been applied and the visible positions match the window again.
+     */
+    private void submitWindow() {
+        adapter.submitList(new ArrayList<>(window), new Runnable() {
+            @Override
+            public void run() {
+                loading = false;
+            }
+        });
+    }
+}
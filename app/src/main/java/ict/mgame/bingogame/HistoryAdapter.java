@@ -6,28 +6,36 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
-
 /**
- * HistoryAdapter class is a RecyclerView adapter for displaying GameInfo items.
- * It binds data to views and handles timestamp formatting.
+ * HistoryAdapter class is a RecyclerView adapter for displaying HistoryItem rows.
+ * List updates are diffed in the background by row id, so only inserted, removed or
+ * changed rows are rebound, and binding only sets precomputed strings.
  */
-public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
+public class HistoryAdapter extends ListAdapter<HistoryItem, HistoryAdapter.ViewHolder> {
 
-    // List of GameInfo objects to display
-    private List<GameInfo> gameInfoList;
+    // Rows are the same when they share a database id
+    private static final DiffUtil.ItemCallback<HistoryItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<HistoryItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HistoryItem oldItem, @NonNull HistoryItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HistoryItem oldItem, @NonNull HistoryItem newItem) {
+            return oldItem.hasSameContent(newItem);
+        }
+    };
 
     /**
      * Constructor for HistoryAdapter.
-     * @param gameInfoList List of GameInfo to adapt
      */
-    public HistoryAdapter(List<GameInfo> gameInfoList) {
-        this.gameInfoList = gameInfoList;
+    public HistoryAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -41,23 +49,18 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        // Get GameInfo at position
-        GameInfo info = gameInfoList.get(position);
-        // Bind data to TextViews
-        holder.tvUsername.setText("Username: " + info.getUsername());
-        holder.tvRound.setText("Round: " + info.getRound());
-        holder.tvWinningNumbers.setText("Winning Numbers: " + info.getWinningNumbers());
-
-        // Format timestamp to readable date/time
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-        String formattedTime = sdf.format(new Date(info.getTimestamp()));
-        holder.tvTimestamp.setText("Time: " + formattedTime);
+        // Bind the precomputed strings
+        HistoryItem item = getItem(position);
+        holder.tvUsername.setText(item.getUsernameText());
+        holder.tvRound.setText(item.getRoundText());
+        holder.tvWinningNumbers.setText(item.getWinningNumbersText());
+        holder.tvTimestamp.setText(item.getTimestampText());
     }
 
     @Override
-    public int getItemCount() {
-        // Return the size of the list
-        return gameInfoList.size();
+    public long getItemId(int position) {
+        // Database id as the stable id
+        return getItem(position).getId();
     }
 
     /**
@@ -75,4 +78,4 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
             tvTimestamp = itemView.findViewById(R.id.tv_timestamp);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package ict.mgame.bingogame;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * HistoryItem class is one row of the history list, ready to bind.
+ * All display strings are built once, on the loading thread, so binding a row only
+ * sets text. Items are immutable and keyed by the gameinfo row id.
+ */
+public final class HistoryItem {
+
+    // Timestamp formatter per thread (SimpleDateFormat is not thread-safe)
+    private static final ThreadLocal<SimpleDateFormat> TIME_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+        }
+    };
+
+    // Row id in the gameinfo table
+    private final long id;
+    // Raw timestamp, kept as the paging key
+    private final long timestamp;
+    // Display strings
+    private final String usernameText;
+    private final String roundText;
+    private final String winningNumbersText;
+    private final String timestampText;
+
+    /**
+     * Builds the display form of a stored game.
+     * @param info Row read from the database
+     */
+    public HistoryItem(GameInfo info) {
+        this.id = info.getId();
+        this.timestamp = info.getTimestamp();
+        this.usernameText = "Username: " + info.getUsername();
+        this.roundText = "Round: " + info.getRound();
+        this.winningNumbersText = "Winning Numbers: " + info.getWinningNumbers();
+        this.timestampText = "Time: " + TIME_FORMAT.get().format(new Date(timestamp));
+    }
+
+    // Getter for id
+    public long getId() {
+        return id;
+    }
+
+    // Getter for timestamp
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // Getter for the username line
+    public String getUsernameText() {
+        return usernameText;
+    }
+
+    // Getter for the round line
+    public String getRoundText() {
+        return roundText;
+    }
+
+    // Getter for the winning numbers line
+    public String getWinningNumbersText() {
+        return winningNumbersText;
+    }
+
+    // Getter for the time line
+    public String getTimestampText() {
+        return timestampText;
+    }
+
+    /**
+     * Checks whether two items would display the same.
+     * @param other Item to compare with
+     * @return true if every display string is equal
+     */
+    public boolean hasSameContent(HistoryItem other) {
+        return usernameText.equals(other.usernameText)
+                && roundText.equals(other.roundText)
+                && winningNumbersText.equals(other.winningNumbersText)
+                && timestampText.equals(other.timestampText);
+    }
+}
@@ -0,0 +1,639 @@
+package ict.mgame.bingogame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HistoryTransfer class moves game history between devices and into analytics as CSV,
+ * NDJSON (one JSON object per line) or a compact binary format, optionally gzipped.
+ * Export reads the table in id-ordered pages and encodes rows into one reusable buffer that
+ * is flushed to an NIO channel; import parses rows into large batches, each written in one
+ * transaction. Memory stays bounded by one page or batch whatever the history size.
+ *
+ * Every format carries username, round, timestamp, seed, winning numbers and, for rows that
+ * have it, the packed card (24 hex digits in the text formats) with its win and marks masks.
+ * Row ids are not transferred; imported rows get new ids.
+ */
+public final class HistoryTransfer {
+
+    // Supported file formats
+    public enum Format { CSV, NDJSON, BINARY }
+
+    // Magic bytes at the start of a binary history file ("BGH1")
+    public static final int BINARY_MAGIC = 0x42474831;
+    // Flag bits of a binary record
+    private static final int FLAG_SEED = 1;
+    private static final int FLAG_CARD = 2;
+    private static final int FLAG_TEXT = 4;
+    private static final int FLAG_USERNAME = 8;
+    // CSV header row
+    static final String CSV_HEADER = "username,round,timestamp,seed,winning_numbers,card,win_mask,marks_mask";
+    // Rows read from the database per page during export
+    private static final int EXPORT_PAGE = 4096;
+    // Rows written per transaction during import
+    private static final int IMPORT_BATCH = 5000;
+    // Size of the export buffer and the import read buffer
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Exports the whole gameinfo table to a file.
+     * @param dbHelper Database to read
+     * @param format File format
+     * @param file Destination file, replaced if it exists
+     * @param gzip true to gzip the output
+     * @return Rows written and throughput
+     */
+    public static Report exportTo(DBHelper dbHelper, Format format, File file, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (WritableByteChannel channel = openChannel(file, gzip);
+             RowWriter writer = new RowWriter(format, channel)) {
+            long lastId = 0;
+            List<GameInfo> page;
+            do {
+                page = dbHelper.getGameInfoAfterId(lastId, EXPORT_PAGE);
+                for (GameInfo gameInfo : page) {
+                    writer.write(gameInfo);
+                    lastId = gameInfo.getId();
+                }
+                rows += page.size();
+            } while (page.size() == EXPORT_PAGE);
+        }
+        return new Report(rows, System.nanoTime() - start);
+    }
+
+    /**
+     * Imports a history file, appending its rows to the gameinfo table.
+     * @param dbHelper Database to write
+     * @param format File format
+     * @param file Source file; gzip is detected automatically
+     * @return Rows read and throughput
+     */
+    public static Report importFrom(DBHelper dbHelper, Format format, File file) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (InputStream in = openInput(file);
+             RowReader reader = new RowReader(format, in)) {
+            List<GameInfo> batch = new ArrayList<>(IMPORT_BATCH);
+            GameInfo gameInfo;
+            while ((gameInfo = reader.read()) != null) {
+                batch.add(gameInfo);
+                if (batch.size() == IMPORT_BATCH) {
+                    dbHelper.insertGameInfoBatch(batch);
+                    rows += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                dbHelper.insertGameInfoBatch(batch);
+                rows += batch.size();
+            }
+        }
+        return new Report(rows, System.nanoTime() - start);
+    }
+
+    // Opens a file for writing as a channel, through gzip if requested; closes the file on failure
+    static WritableByteChannel openChannel(File file, boolean gzip) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        if (!gzip) return out.getChannel();
+        try {
+            return Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(out.getChannel()), BUFFER_SIZE));
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    // Opens a file for reading, unwrapping gzip when the file starts with the gzip magic;
+    // closes the file on failure, e.g. a damaged gzip header
+    static InputStream openInput(File file) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(new FileInputStream(file).getChannel()), BUFFER_SIZE);
+        try {
+            in.mark(2);
+            int b0 = in.read();
+            int b1 = in.read();
+            in.reset();
+            if (b0 == 0x1F && b1 == 0x8B) {
+                return new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+            }
+            return in;
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Report class holds the outcome of an export or import.
+     */
+    public static final class Report {
+        // Rows transferred
+        private final long rows;
+        // Elapsed time in nanoseconds
+        private final long nanos;
+
+        Report(long rows, long nanos) {
+            this.rows = rows;
+            this.nanos = nanos;
+        }
+
+        // Getter for rows
+        public long getRows() {
+            return rows;
+        }
+
+        // Getter for the elapsed time in seconds
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        // Throughput in rows per second
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : rows / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d rows in %.2fs (%.0f rows/s)", rows, getSeconds(), getRowsPerSecond());
+        }
+    }
+
+    /**
+     * RowWriter class encodes rows into a reusable buffer and writes it to a channel when full.
+     */
+    static final class RowWriter implements AutoCloseable {
+        // Output format
+        private final Format format;
+        // Destination channel, closed by close()
+        private final WritableByteChannel channel;
+        // Encoding buffer
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // Reused for the text formats
+        private final StringBuilder line = new StringBuilder(160);
+
+        RowWriter(Format format, WritableByteChannel channel) throws IOException {
+            this.format = format;
+            this.channel = channel;
+            if (format == Format.CSV) {
+                put((CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            } else if (format == Format.BINARY) {
+                buffer.putInt(BINARY_MAGIC);
+            }
+        }
+
+        // Encodes one row
+        void write(GameInfo gameInfo) throws IOException {
+            if (format == Format.BINARY) {
+                writeBinary(gameInfo);
+                return;
+            }
+            line.setLength(0);
+            if (format == Format.CSV) {
+                appendCsv(gameInfo);
+            } else {
+                appendJson(gameInfo);
+            }
+            line.append('\n');
+            put(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        // username,round,timestamp,seed,"winning numbers",card,win_mask,marks_mask
+        private void appendCsv(GameInfo gameInfo) {
+            appendCsvField(gameInfo.getUsername());
+            line.append(',').append(gameInfo.getRound());
+            line.append(',').append(gameInfo.getTimestamp());
+            line.append(',');
+            if (gameInfo.getSeed() != BingoRound.NO_SEED) line.append(gameInfo.getSeed());
+            line.append(',');
+            appendCsvField(gameInfo.getWinningNumbers());
+            line.append(',');
+            if (gameInfo.hasCard()) {
+                appendCardHex(gameInfo);
+                line.append(',').append(gameInfo.getWinMask());
+                line.append(',').append(gameInfo.getMarksMask());
+            } else {
+                line.append(",,");
+            }
+        }
+
+        // Quotes a field when it holds a separator, quote or line break; null is an empty field
+        private void appendCsvField(String value) {
+            if (value == null) return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') line.append('"');
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        // {"username":...,"round":...} with absent values written as null
+        private void appendJson(GameInfo gameInfo) {
+            line.append("{\"username\":");
+            appendJsonString(gameInfo.getUsername());
+            line.append(",\"round\":").append(gameInfo.getRound());
+            line.append(",\"timestamp\":").append(gameInfo.getTimestamp());
+            line.append(",\"seed\":");
+            if (gameInfo.getSeed() != BingoRound.NO_SEED) {
+                line.append(gameInfo.getSeed());
+            } else {
+                line.append("null");
+            }
+            line.append(",\"winning_numbers\":");
+            appendJsonString(gameInfo.getWinningNumbers());
+            if (gameInfo.hasCard()) {
+                line.append(",\"card\":\"");
+                appendCardHex(gameInfo);
+                line.append("\",\"win_mask\":").append(gameInfo.getWinMask());
+                line.append(",\"marks_mask\":").append(gameInfo.getMarksMask());
+            }
+            line.append('}');
+        }
+
+        // JSON string literal with the required escapes
+        private void appendJsonString(String value) {
+            if (value == null) {
+                line.append("null");
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    line.append('\\').append(c);
+                } else if (c < 0x20) {
+                    line.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                } else {
+                    line.append(c);
+                }
+            }
+            line.append('"');
+        }
+
+        // Packed card as 24 hex digits (the 12 bytes of BingoCard.packedToBytes())
+        private void appendCardHex(GameInfo gameInfo) {
+            String lo = Long.toHexString(gameInfo.getCardLow());
+            String hi = Long.toHexString(gameInfo.getCardHigh() & 0xFFFFFFFFL);
+            for (int i = lo.length(); i < 16; i++) line.append('0');
+            line.append(lo);
+            for (int i = hi.length(); i < 8; i++) line.append('0');
+            line.append(hi);
+        }
+
+        // Binary record: flags, round, timestamp, [seed], [username], then card and masks or text
+        private void writeBinary(GameInfo gameInfo) throws IOException {
+            byte[] username = gameInfo.getUsername() == null ? null : gameInfo.getUsername().getBytes(StandardCharsets.UTF_8);
+            byte[] text = gameInfo.hasCard() || gameInfo.getWinningNumbers() == null
+                    ? null : gameInfo.getWinningNumbers().getBytes(StandardCharsets.UTF_8);
+            int flags = (gameInfo.getSeed() != BingoRound.NO_SEED ? FLAG_SEED : 0)
+                    | (gameInfo.hasCard() ? FLAG_CARD : 0)
+                    | (text != null ? FLAG_TEXT : 0)
+                    | (username != null ? FLAG_USERNAME : 0);
+            ensureRoom(1 + 4 + 8 + 8 + 2 + BingoCard.PACKED_BYTES + 8
+                    + (username == null ? 0 : username.length) + (text == null ? 0 : text.length));
+            buffer.put((byte) flags);
+            buffer.putInt(gameInfo.getRound());
+            buffer.putLong(gameInfo.getTimestamp());
+            if ((flags & FLAG_SEED) != 0) buffer.putLong(gameInfo.getSeed());
+            if (username != null) putShortBytes(username);
+            if (gameInfo.hasCard()) {
+                buffer.putLong(gameInfo.getCardLow());
+                buffer.putInt((int) gameInfo.getCardHigh());
+                buffer.putInt(gameInfo.getWinMask());
+                buffer.putInt(gameInfo.getMarksMask());
+            } else if (text != null) {
+                putShortBytes(text);
+            }
+        }
+
+        // Length-prefixed bytes (unsigned 16-bit length)
+        private void putShortBytes(byte[] bytes) {
+            if (bytes.length > 0xFFFF) throw new IllegalArgumentException("Field longer than 65535 bytes");
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        // Copies bytes into the buffer, flushing it as often as needed
+        private void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) drain();
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        // Makes room for a record of at most the given size
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) drain();
+            if (buffer.remaining() < bytes) throw new IllegalArgumentException("Record larger than the buffer");
+        }
+
+        // Writes the buffered bytes to the channel
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * RowReader class decodes rows of any format from a stream, one at a time.
+     */
+    static final class RowReader implements AutoCloseable {
+        // Input format
+        private final Format format;
+        // Source for the text formats
+        private final BufferedReader text;
+        // Source for the binary format
+        private final DataInputStream binary;
+        // Line number, for error messages
+        private long lineNumber;
+
+        /**
+         * Constructor for RowReader; checks the file's magic or header.
+         * @param format Input format
+         * @param in Source; closed by close(), or here if the header is wrong
+         * @throws IOException if the header is wrong or unreadable
+         */
+        RowReader(Format format, InputStream in) throws IOException {
+            this.format = format;
+            try {
+                if (format == Format.BINARY) {
+                    text = null;
+                    binary = new DataInputStream(in);
+                    if (binary.readInt() != BINARY_MAGIC) throw new IOException("Not a binary history file");
+                } else {
+                    text = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+                    binary = null;
+                    if (format == Format.CSV) {
+                        String header = text.readLine();
+                        lineNumber++;
+                        if (!CSV_HEADER.equals(header)) throw new IOException("Unexpected CSV header: " + header);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Reads the next row.
+         * @return Row, or null at the end of the input
+         */
+        GameInfo read() throws IOException {
+            if (format == Format.BINARY) return readBinary();
+            String line;
+            do {
+                line = text.readLine();
+                lineNumber++;
+                if (line == null) return null;
+            } while (line.isEmpty());
+            try {
+                return format == Format.CSV ? parseCsv(line) : parseJson(line);
+            } catch (RuntimeException e) {
+                throw new IOException("Bad row on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        // Parses one CSV record; a quoted field may continue on the following lines
+        private GameInfo parseCsv(String first) throws IOException {
+            List<String> fields = new ArrayList<>(8);
+            StringBuilder field = new StringBuilder();
+            String line = first;
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) break;
+                    line = text.readLine();  // Line break inside a quoted field
+                    lineNumber++;
+                    if (line == null) throw new IOException("Unterminated quote");
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            if (fields.size() != 8) throw new IllegalArgumentException("Expected 8 fields, got " + fields.size());
+            return toGameInfo(emptyToNull(fields.get(0)), fields.get(1), fields.get(2), fields.get(3),
+                    emptyToNull(fields.get(4)), fields.get(5), fields.get(6), fields.get(7));
+        }
+
+        // Parses one flat JSON object as written by RowWriter
+        private GameInfo parseJson(String line) {
+            JsonObjectParser parser = new JsonObjectParser(line);
+            return toGameInfo(parser.get("username"), parser.get("round"), parser.get("timestamp"),
+                    parser.get("seed"), parser.get("winning_numbers"), parser.get("card"),
+                    parser.get("win_mask"), parser.get("marks_mask"));
+        }
+
+        // Builds a row from text fields; empty or null optional fields are absent
+        private static GameInfo toGameInfo(String username, String round, String timestamp, String seed,
+                                           String winningNumbers, String card, String winMask, String marksMask) {
+            boolean hasSeed = seed != null && !seed.isEmpty();
+            GameInfo gameInfo = new GameInfo(username, Integer.parseInt(round), winningNumbers,
+                    Long.parseLong(timestamp), hasSeed ? Long.parseLong(seed) : BingoRound.NO_SEED);
+            if (card != null && !card.isEmpty()) {
+                if (card.length() != 2 * BingoCard.PACKED_BYTES) throw new IllegalArgumentException("Bad card: " + card);
+                // The card is authoritative; the text is derived from it again when needed
+                gameInfo.setWinningNumbers(null);
+                gameInfo.setCard(Long.parseUnsignedLong(card.substring(0, 16), 16), Long.parseLong(card.substring(16), 16),
+                        Integer.parseInt(winMask), Integer.parseInt(marksMask));
+            }
+            return gameInfo;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+
+        // Reads one binary record, or null at a clean end of input
+        private GameInfo readBinary() throws IOException {
+            int flags = binary.read();
+            if (flags < 0) return null;
+            try {
+                int round = binary.readInt();
+                long timestamp = binary.readLong();
+                long seed = (flags & FLAG_SEED) != 0 ? binary.readLong() : BingoRound.NO_SEED;
+                String username = (flags & FLAG_USERNAME) != 0 ? readShortString() : null;
+                GameInfo gameInfo = new GameInfo(username, round, null, timestamp, seed);
+                if ((flags & FLAG_CARD) != 0) {
+                    long lo = binary.readLong();
+                    long hi = binary.readInt() & 0xFFFFFFFFL;
+                    gameInfo.setCard(lo, hi, binary.readInt(), binary.readInt());
+                } else if ((flags & FLAG_TEXT) != 0) {
+                    gameInfo.setWinningNumbers(readShortString());
+                }
+                return gameInfo;
+            } catch (EOFException e) {
+                throw new IOException("Truncated binary history file", e);
+            }
+        }
+
+        // Length-prefixed UTF-8 string
+        private String readShortString() throws IOException {
+            byte[] bytes = new byte[binary.readUnsignedShort()];
+            binary.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (text != null) text.close();
+            if (binary != null) binary.close();
+        }
+    }
+
+    /**
+     * JsonObjectParser class reads the flat objects of the NDJSON format: string, number
+     * and null values only. Values are returned as text, null for JSON null or a missing key.
+     */
+    private static final class JsonObjectParser {
+        // Keys and values in order of appearance
+        private final List<String> keys = new ArrayList<>(8);
+        private final List<String> values = new ArrayList<>(8);
+        // Source line and read position
+        private final String json;
+        private int pos;
+
+        JsonObjectParser(String json) {
+            this.json = json;
+            skipSpace();
+            expect('{');
+            skipSpace();
+            if (peek() == '}') return;
+            while (true) {
+                skipSpace();
+                keys.add(readString());
+                skipSpace();
+                expect(':');
+                skipSpace();
+                values.add(readValue());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return;
+                }
+            }
+        }
+
+        // Value of a key, or null
+        String get(String key) {
+            int i = keys.indexOf(key);
+            return i < 0 ? null : values.get(i);
+        }
+
+        private String readValue() {
+            if (peek() == '"') return readString();
+            int start = pos;
+            while (pos < json.length() && ",} \t".indexOf(json.charAt(pos)) < 0) pos++;
+            String token = json.substring(start, pos);
+            if (token.isEmpty()) throw new IllegalArgumentException("Missing value at " + start);
+            return token.equals("null") ? null : token;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);  // \" \\ \/
+                }
+            }
+        }
+
+        private char peek() {
+            if (pos >= json.length()) throw new IllegalArgumentException("Unexpected end of line");
+            return json.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw new IllegalArgumentException("Expected '" + c + "' at " + (pos - 1));
+        }
+
+        private void skipSpace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) pos++;
+        }
+    }
+
+    private HistoryTransfer() {
+    }
+}
@@ -0,0 +1,134 @@
+package ict.mgame.bingogame;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram class records durations in nanoseconds into fixed log-linear buckets.
+ * Each power of two is split into 8 equal sub-buckets, so a reported percentile is at most
+ * 12.5% above the true value, and 488 buckets cover every non-negative long.
+ * Recording is a few atomic increments with no locks or allocation, so any thread may
+ * record concurrently; reads are consistent enough for monitoring, not a snapshot.
+ */
+public final class LatencyHistogram {
+
+    // Sub-buckets per power of two (as a shift: 2^3 = 8)
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // Values below SUB_COUNT get one bucket each; every larger power of two gets SUB_COUNT
+    private static final int BUCKET_COUNT = (64 - SUB_BITS) * SUB_COUNT;
+
+    // Operation name, used in dumps
+    private final String name;
+    // Sample count per bucket
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    // Totals across all buckets
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructor for LatencyHistogram.
+     * @param name Operation name
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one duration.
+     * @param nanos Duration in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long seen;
+        while (value > (seen = max.get()) && !max.compareAndSet(seen, value)) {
+            // Retry until this value is stored or a larger one is seen
+        }
+    }
+
+    /**
+     * Records the time since a start taken with Metrics.start(); does nothing for a start of 0.
+     * @param startNanos Value returned by Metrics.start()
+     */
+    public void recordSince(long startNanos) {
+        if (startNanos != 0) record(System.nanoTime() - startNanos);
+    }
+
+    // Bucket index of a value
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // Largest value that falls in a bucket
+    static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        long sub = bucket % SUB_COUNT;
+        long width = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    /**
+     * Estimates a percentile.
+     * @param percentile Percentile in (0, 100]
+     * @return Upper bound of the bucket holding that rank (capped at the max), 0 without samples
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all samples.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // Getter for name
+    public String getName() {
+        return name;
+    }
+
+    // Getter for the number of samples
+    public long getCount() {
+        return count.get();
+    }
+
+    // Getter for the largest sample in nanoseconds
+    public long getMax() {
+        return max.get();
+    }
+
+    // Mean sample in nanoseconds, 0 without samples
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-14s n=%-8d p50=%8.1fus p99=%8.1fus max=%8.1fus",
+                name, getCount(), getPercentile(50) / 1e3, getPercentile(99) / 1e3, getMax() / 1e3);
+    }
+}
@@ -32,6 +32,9 @@ public class LoginActivity extends Activity {
         editPassword = findViewById(R.id.edit_password);
         Button btnEnter = findViewById(R.id.btn_enter);
 
+        // Start filling the pool of ready rounds so the first cards are instant
+        RoundPool.getInstance();
+
         // Get SharedPreferences instance named "login.xml"
         sharedPreferences = getSharedPreferences("login.xml", MODE_PRIVATE);
 
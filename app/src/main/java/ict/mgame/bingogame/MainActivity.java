@@ -2,75 +2,79 @@ package ict.mgame.bingogame;
 
 import android.app.Activity;
 import android.app.AlertDialog;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
-import android.view.Gravity;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.Button;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MainActivity class handles the core functionality of the Bingo game.
- * It manages the UI elements, game logic for drawing numbers, checking for Bingo,
- * auto-draw feature, generating new cards, and integrating with database for history.
+ * It manages the UI elements and sends the buttons' and auto-draw's commands to a GameEngine,
+ * which plays the game on its own thread; the UI only renders the engine's snapshots, at most
+ * once per display frame. Bingo wins are stored in the database for history.
  */
 public class MainActivity extends Activity {
 
-    // 2D array for TextViews representing the Bingo card cells
-    private TextView[][] cardViews = new TextView[5][5];
-    // 2D array storing the numbers on the Bingo card
-    private int[][] cardNumbers = new int[5][5];
-    // 2D boolean array tracking which cells are marked (hit by drawn numbers)
-    private boolean[][] marked = new boolean[5][5];
-    // List of available numbers to draw (1-75, shuffled)
-    private List<Integer> availableNumbers = new ArrayList<>();
+    // Log tag
+    private static final String TAG = "MainActivity";
+    // Longest the engine thread waits for room in the game info writer's queue
+    private static final long STORE_TIMEOUT_MS = 500;
+    // Bundle key and file name of the saved game state
+    private static final String STATE_KEY = "game_state";
+    private static final String STATE_FILE = "game_state.bin";
+    // Side patterns announced as the card completes them; Bingo is still any line
+    private static final PatternSet PATTERNS = new PatternSet(WinPattern.FOUR_CORNERS, WinPattern.X,
+            WinPattern.POSTAGE_STAMP, WinPattern.PICTURE_FRAME, WinPattern.BLACKOUT);
+
+    // Game engine owning the card, deck and round on its own thread
+    private GameEngine engine;
+    // Snapshot currently on screen, UI thread only
+    private GameSnapshot shownSnapshot;
+    // Round whose Bingo dialog has been shown, UI thread only
+    private int bingoShownRound = 0;
+    // Patterns of the shown card already announced, UI thread only
+    private long shownPatterns;
+    // UI thread handler and choreographer, for one render per frame
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer choreographer = Choreographer.getInstance();
+    // true while a render is queued, set by the engine thread
+    private final AtomicBoolean renderQueued = new AtomicBoolean();
     // TextView to display the last drawn number
     private TextView tvDrawn;
+    // TextView to display the odds of a Bingo in the next few calls
+    private TextView tvOdds;
     // Buttons for user interactions: manual draw, auto draw, new card, config, history, back
     private Button btnDraw, btnAutoDraw, btnGenerateNew, btnConfig, btnBack, btnHistory;
-    // Container LinearLayout for dynamically adding Bingo card rows
-    private LinearLayout bingoCardContainer;
-    // Handler for scheduling auto-draw tasks
-    private Handler autoDrawHandler = new Handler();
-    // Flag to track if auto-draw is active
-    private boolean isAutoDrawing = false;
-    // Database helper for storing game info
-    private DBHelper dbHelper;
+    // Custom view drawing the Bingo card
+    private BingoCardView bingoCardView;
+    // Runs auto-draw at the configured interval (0 = turbo)
+    private DrawScheduler drawScheduler;
+    // Whether auto-draw was running when the activity paused, to restart it on resume
+    private boolean autoDrawPaused;
+    // Background writer that stores game info through the database helper
+    private GameInfoWriter gameInfoWriter;
     // SharedPreferences for accessing user login data (e.g., username)
     private SharedPreferences sharedPreferences;
-    // Current round number, starts at 0 and increments per new game
-    private int currentRound = 0;  // Starts at 0, increments on new game
-    // Flag to ensure game info is stored only once per Bingo win
-    private boolean hasStoredBingo = false;  // Prevent multiple inserts per game
-
-    // Runnable for auto-drawing numbers every 3 seconds
-    private final Runnable autoDrawRunnable = new Runnable() {
-        @Override
-        public void run() {
-            // Check if auto-draw is still active and numbers are available
-            if (isAutoDrawing && !availableNumbers.isEmpty()) {
-                // Draw a number
-                drawNumber();
-                // If no Bingo yet, schedule the next draw after 3 seconds
-                if (!hasBingo()) {
-                    autoDrawHandler.postDelayed(this, 3000);  // 3-second delay
-                } else {
-                    // Stop auto-draw on Bingo
-                    stopAutoDraw();
-                }
-            }
-        }
-    };
+    // File the game state is saved to when the activity pauses
+    private File stateFile;
+    // Background thread for state file writes and closing the game info writer
+    private final ExecutorService stateSaver = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -80,29 +84,72 @@ public class MainActivity extends Activity {
 
         // Initialize UI elements by finding them in the layout
         tvDrawn = findViewById(R.id.tv_drawn);
+        tvOdds = findViewById(R.id.tv_odds);
         btnDraw = findViewById(R.id.btn_draw);
         btnAutoDraw = findViewById(R.id.btn_auto_draw);
         btnGenerateNew = findViewById(R.id.btn_generate_new);
         btnConfig = findViewById(R.id.btn_config);
         btnHistory = findViewById(R.id.btn_history);
         btnBack = findViewById(R.id.btn_back);
-        bingoCardContainer = findViewById(R.id.bingo_card);
+        bingoCardView = findViewById(R.id.bingo_card);
 
-        // Initialize database helper
-        dbHelper = new DBHelper(this);
+        // Initialize the background game info writer and its database helper
+        gameInfoWriter = new GameInfoWriter(new DBHelper(this));
         // Get shared preferences for login data
         sharedPreferences = getSharedPreferences("login.xml", MODE_PRIVATE);
 
-        // Generate the initial Bingo card (increments round to 1)
-        generateNewCard();  // Initial card generation, increments to round 1
+        // Resume the saved game: from the Bundle after a rotation, else from the state file
+        long resumeStart = Metrics.start();
+        stateFile = new File(getFilesDir(), STATE_FILE);
+        GameSnapshot saved = savedInstanceState != null
+                ? GameStateStore.decode(savedInstanceState.getByteArray(STATE_KEY))
+                : GameStateStore.load(stateFile);
+        if (saved != null && saved.hasBingo()) {
+            // Its dialog was already shown
+            bingoShownRound = saved.getRound();
+        }
+
+        // The engine resumes the saved game or deals round 1; its events arrive on the engine thread
+        engine = new GameEngine(new SplitMixRng(), RoundPool.getInstance(), PATTERNS, new GameEngine.Listener() {
+            @Override
+            public void onSnapshot(GameSnapshot snapshot) {
+                // Coalesce: at most one render queued, showing the latest snapshot
+                if (renderQueued.compareAndSet(false, true)) {
+                    uiHandler.post(queueRender);
+                }
+            }
+
+            @Override
+            public void onBingo(GameSnapshot snapshot) {
+                // Stored from the engine thread, before the UI sees the Bingo
+                storeGameInfo(snapshot);
+            }
+        }, saved);
+        drawScheduler = new DrawScheduler(engine);
+        engine.start();
+        render(engine.getSnapshot());
+        if (saved != null) Metrics.RESUME.recordSince(resumeStart);
+
+        // Long-press on the drawn number opens the metrics dialog
+        tvDrawn.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                showMetricsDialog();
+                return true;
+            }
+        });
 
         // Set click listener for manual draw button
         btnDraw.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                // A manual draw ends a turbo run first
+                if (drawScheduler.isTurbo()) {
+                    stopAutoDraw();
+                }
                 // Draw a number if available
-                if (!availableNumbers.isEmpty()) {
-                    drawNumber();
+                if (!engine.getSnapshot().isDeckEmpty()) {
+                    engine.draw();
                 } else {
                     // Show dialog if no more numbers
                     showNoMoreNumbersDialog();
@@ -115,7 +162,7 @@ public class MainActivity extends Activity {
             @Override
             public void onClick(View v) {
                 // Toggle auto-draw on/off
-                if (isAutoDrawing) {
+                if (drawScheduler.isRunning()) {
                     stopAutoDraw();
                 } else {
                     startAutoDraw();
@@ -128,10 +175,10 @@ public class MainActivity extends Activity {
             @Override
             public void onClick(View v) {
                 // Stop auto-draw if active, then generate new card
-                if (isAutoDrawing) {
+                if (drawScheduler.isRunning()) {
                     stopAutoDraw();
                 }
-                generateNewCard();
+                engine.newGame();
             }
         });
 
@@ -150,9 +197,23 @@ public class MainActivity extends Activity {
         btnHistory.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                // Start HistoryActivity
-                Intent intent = new Intent(MainActivity.this, HistoryActivity.class);
-                startActivity(intent);
+                // Start HistoryActivity once the latest win is written, without blocking the UI
+                gameInfoWriter.flush(new GameInfoWriter.FlushListener() {
+                    @Override
+                    public void onFlushed(final boolean written) {
+                        uiHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (isFinishing() || isDestroyed()) return;
+                                if (!written) {
+                                    Toast.makeText(MainActivity.this, "Latest win not saved yet", Toast.LENGTH_SHORT).show();
+                                }
+                                Intent intent = new Intent(MainActivity.this, HistoryActivity.class);
+                                startActivity(intent);
+                            }
+                        });
+                    }
+                });
             }
         });
 
@@ -161,7 +222,7 @@ public class MainActivity extends Activity {
             @Override
             public void onClick(View v) {
                 // Stop auto-draw if active, then finish activity
-                if (isAutoDrawing) {
+                if (drawScheduler.isRunning()) {
                     stopAutoDraw();
                 }
                 finish();  // Returns to previous activity (Login)
@@ -169,357 +230,247 @@ public class MainActivity extends Activity {
         });
     }
 
-    /**
-     * Draws a random number from availableNumbers, updates UI, marks card if match,
-     * and checks for Bingo. If Bingo, shows dialog and stores game info.
-     */
-    private void drawNumber() {
-        // Select a random index from available numbers
-        int drawnIndex = new Random().nextInt(availableNumbers.size());
-        // Remove and get the drawn number
-        int drawn = availableNumbers.remove(drawnIndex);
-        // Update drawn text view
-        tvDrawn.setText("Drawn: " + drawn);
-
-        // Check and mark if the drawn number is on the card
-        for (int i = 0; i < 5; i++) {
-            for (int j = 0; j < 5; j++) {
-                if (cardNumbers[i][j] == drawn) {
-                    marked[i][j] = true;
-                    cardViews[i][j].setText("X");
-                    cardViews[i][j].setBackgroundColor(Color.RED);
-                }
-            }
-        }
-
-        // Check for Bingo and store info if not already done
-        if (hasBingo() && !hasStoredBingo) {
-            new AlertDialog.Builder(MainActivity.this)
-                    .setMessage("Bingo! You win!")
-                    .setPositiveButton("OK", null)
-                    .show();
-
-            // Store game info only once
-            storeGameInfo();
-            hasStoredBingo = true;
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Restart the auto-draw stopped by onPause()
+        if (autoDrawPaused) {
+            autoDrawPaused = false;
+            if (!engine.getSnapshot().isFinished()) startAutoDraw();
         }
     }
 
-    /**
-     * Stores the game information in the database upon Bingo win.
-     * Includes username, round, winning numbers, and timestamp.
-     */
-    private void storeGameInfo() {
-        // Get username from shared preferences
-        String username = sharedPreferences.getString("username", "Unknown");
-        // Get the winning line numbers as string
-        String winningNumbers = getWinningNumbers();  // Get the first winning line's numbers
-        // Current system time
-        long timestamp = System.currentTimeMillis();
+    @Override
+    protected void onPause() {
+        super.onPause();
+        pauseGame();
+    }
 
-        // Create and insert GameInfo object
-        GameInfo gameInfo = new GameInfo(username, currentRound, winningNumbers, timestamp);
-        dbHelper.insertGameInfo(gameInfo);
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        // A few bytes, resumed in onCreate() without reshuffling; onPause() already ended any
+        // turbo run, and a published snapshot always carries its Bingo's stored flag
+        outState.putByteArray(STATE_KEY, GameStateStore.encode(engine.getSnapshot()));
     }
 
-    /**
-     * Retrieves the numbers from the first detected winning line (row, column, or diagonal)
-     * as a comma-separated string, handling "FREE" for the center.
-     * @return String of winning numbers
-     */
-    private String getWinningNumbers() {
-        StringBuilder sb = new StringBuilder();
-
-        // Check rows
-        for (int i = 0; i < 5; i++) {
-            if (isLineMarked(marked[i])) {
-                for (int j = 0; j < 5; j++) {
-                    if (i == 2 && j == 2) {
-                        sb.append("FREE");
-                    } else {
-                        sb.append(cardNumbers[i][j]);
+    // Saves the final snapshot of a pause off the UI thread, so a cold start can resume it
+    private final GameEngine.PauseListener saveState = new GameEngine.PauseListener() {
+        @Override
+        public void onPaused(final GameSnapshot snapshot) {
+            stateSaver.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        GameStateStore.save(stateFile, snapshot);
+                    } catch (IOException e) {
+                        // The previous save, if any, stays intact
                     }
-                    if (j < 4) sb.append(",");
                 }
-                return sb.toString();
-            }
+            });
         }
+    };
 
-        // Check columns
-        for (int j = 0; j < 5; j++) {
-            boolean colMarked = true;
-            for (int i = 0; i < 5; i++) {
-                if (!marked[i][j]) {
-                    colMarked = false;
-                    break;
-                }
-            }
-            if (colMarked) {
-                for (int i = 0; i < 5; i++) {
-                    if (i == 2 && j == 2) {
-                        sb.append("FREE");
-                    } else {
-                        sb.append(cardNumbers[i][j]);
-                    }
-                    if (i < 4) sb.append(",");
-                }
-                return sb.toString();
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        drawScheduler.stop();
+        // Claims the render flag for good, so no snapshot queues a render after this; then
+        // drops a render still queued
+        renderQueued.set(true);
+        uiHandler.removeCallbacks(queueRender);
+        choreographer.removeFrameCallback(renderFrame);
+        // Off the UI thread: stops the engine once it has run its last commands, so any Bingo
+        // is submitted and the pause save from onPause() is queued, then writes anything still
+        // queued and closes the database; the executor stops after the state save
+        final GameEngine stoppingEngine = engine;
+        final GameInfoWriter writer = gameInfoWriter;
+        stateSaver.execute(new Runnable() {
+            @Override
+            public void run() {
+                stoppingEngine.shutdown();
+                writer.close();
+                stateSaver.shutdown();
             }
-        }
+        });
+    }
 
-        // Check main diagonal
-        boolean diag1 = true;
-        for (int i = 0; i < 5; i++) {
-            if (!marked[i][i]) diag1 = false;
-        }
-        if (diag1) {
-            for (int i = 0; i < 5; i++) {
-                if (i == 2) {
-                    sb.append("FREE");
-                } else {
-                    sb.append(cardNumbers[i][i]);
-                }
-                if (i < 4) sb.append(",");
-            }
-            return sb.toString();
+    // Queues the render for the next frame; runs on the UI thread, which owns the choreographer
+    private final Runnable queueRender = new Runnable() {
+        @Override
+        public void run() {
+            choreographer.postFrameCallback(renderFrame);
         }
+    };
 
-        // Check anti-diagonal
-        boolean diag2 = true;
-        for (int i = 0; i < 5; i++) {
-            if (!marked[i][4 - i]) diag2 = false;
-        }
-        if (diag2) {
-            for (int i = 0; i < 5; i++) {
-                if (i == 2 && (4 - i) == 2) {
-                    sb.append("FREE");
-                } else {
-                    sb.append(cardNumbers[i][4 - i]);
-                }
-                if (i < 4) sb.append(",");
-            }
-            return sb.toString();
+    // Renders the latest snapshot once per frame
+    private final Choreographer.FrameCallback renderFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            renderQueued.set(false);
+            render(engine.getSnapshot());
         }
-
-        return "";  // Fallback, though shouldn't happen if hasBingo() is true
-    }
+    };
 
     /**
-     * Starts the auto-draw feature, updating button UI and scheduling draws.
+     * Shows a snapshot: the last drawn number, the card, the Bingo dialog the first time the
+     * round has Bingo, and the auto-draw button once the round is finished.
+     * @param snapshot Snapshot to show
      */
-    private void startAutoDraw() {
-        if (availableNumbers.isEmpty()) {
-            showNoMoreNumbersDialog();
-            return;
+    private void render(GameSnapshot snapshot) {
+        if (snapshot == shownSnapshot) return;
+        // Announce each pattern once per card; ones complete in a resumed game were announced before
+        if (shownSnapshot == null) {
+            shownPatterns = snapshot.getCompletedPatterns();
+        } else if (!snapshot.sameCard(shownSnapshot)) {
+            shownPatterns = 0;
+        }
+        shownSnapshot = snapshot;
+        long newPatterns = snapshot.getCompletedPatterns() & ~shownPatterns;
+        if (newPatterns != 0) {
+            shownPatterns |= newPatterns;
+            showPatterns(newPatterns);
+        }
+        // Update drawn text view
+        tvDrawn.setText(snapshot.getLastNumber() == 0 ? "Drawn: " : "Drawn: " + snapshot.getLastNumber());
+        // Update odds text view; computed by the engine with the snapshot
+        tvOdds.setText(snapshot.isFinished() ? "Bingo odds: " : String.format(Locale.US,
+                "Bingo odds: %.1f%% in 5 calls, %.1f%% in %d calls", 100 * snapshot.getOdds(5),
+                100 * snapshot.getOdds(GameEngine.ODDS_CALLS), GameEngine.ODDS_CALLS));
+        // Same view: redraws only changed cells, or everything for a new card
+        bingoCardView.setSnapshot(snapshot);
+        // Show the Bingo dialog once per round
+        if (snapshot.hasBingo() && bingoShownRound != snapshot.getRound()) {
+            bingoShownRound = snapshot.getRound();
+            new AlertDialog.Builder(MainActivity.this)
+                    .setMessage("Bingo! You win!")
+                    .setPositiveButton("OK", null)
+                    .show();
+        }
+        // Auto-draw stops by itself on Bingo or an empty deck
+        if (snapshot.isFinished() && drawScheduler.isRunning()) {
+            stopAutoDraw();
         }
-        isAutoDrawing = true;
-        btnAutoDraw.setText("Stop Auto Draw");
-        btnAutoDraw.setBackgroundTintList(getResources().getColorStateList(android.R.color.holo_green_dark));
-        autoDrawHandler.postDelayed(autoDrawRunnable, 3000);  // Start after 3 seconds
     }
 
     /**
-     * Stops the auto-draw feature, updating button UI and removing scheduled tasks.
+     * Announces completed patterns with a toast.
+     * @param bits PatternSet bits of the patterns to announce
      */
-    private void stopAutoDraw() {
-        isAutoDrawing = false;
-        btnAutoDraw.setText("Start Auto Draw");
-        btnAutoDraw.setBackgroundTintList(getResources().getColorStateList(android.R.color.holo_orange_dark));
-        autoDrawHandler.removeCallbacks(autoDrawRunnable);
+    private void showPatterns(long bits) {
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < PATTERNS.size(); i++) {
+            if ((bits & (1L << i)) == 0) continue;
+            if (names.length() > 0) names.append(", ");
+            names.append(PATTERNS.getPattern(i).getName());
+        }
+        Toast.makeText(MainActivity.this, names + "!", Toast.LENGTH_SHORT).show();
     }
 
     /**
-     * Shows a dialog when no more numbers are available to draw.
+     * Stores the game information in the database upon Bingo win; called on the engine thread.
+     * Includes username, round, timestamp, seed and the packed winning card.
+     * @param snapshot State at the Bingo
      */
-    private void showNoMoreNumbersDialog() {
-        new AlertDialog.Builder(MainActivity.this)
-                .setMessage("No more numbers to draw!")
-                .setPositiveButton("OK", null)
-                .show();
-    }
+    private void storeGameInfo(GameSnapshot snapshot) {
+        // Get username from shared preferences
+        String username = sharedPreferences.getString("username", "Unknown");
+        // Current system time
+        long timestamp = System.currentTimeMillis();
 
-    /**
-     * Generates a new Bingo card with random numbers in standard ranges,
-     * increments round, resets game state.
-     */
-    private void generateNewCard() {
-        currentRound++;  // Increment round for new game
-        hasStoredBingo = false;  // Reset for new game
-
-        bingoCardContainer.removeAllViews();  // Clear existing card
-
-        // Generate unique numbers for each column (B:1-15, I:16-30, etc.)
-        List<Integer> bNums = generateUniqueNums(1, 15, 5);
-        List<Integer> iNums = generateUniqueNums(16, 30, 5);
-        List<Integer> nNums = generateUniqueNums(31, 45, 4);  // 4 because center is FREE
-        List<Integer> gNums = generateUniqueNums(46, 60, 5);
-        List<Integer> oNums = generateUniqueNums(61, 75, 5);
-
-        // Build the 5x5 card row by row
-        for (int rowIdx = 0; rowIdx < 5; rowIdx++) {
-            LinearLayout row = new LinearLayout(this);
-            row.setOrientation(LinearLayout.HORIZONTAL);
-            row.setLayoutParams(new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT));
-
-            // B column
-            cardNumbers[rowIdx][0] = bNums.get(rowIdx);
-            addCell(row, rowIdx, 0);
-
-            // I column
-            cardNumbers[rowIdx][1] = iNums.get(rowIdx);
-            addCell(row, rowIdx, 1);
-
-            // N column (center is FREE)
-            if (rowIdx == 2) {
-                cardNumbers[rowIdx][2] = 0;  // FREE
-                TextView tv = createTextView("FREE", Color.RED);
-                row.addView(tv);
-                marked[rowIdx][2] = true;  // FREE is auto-marked
-                cardViews[rowIdx][2] = tv;
-            } else {
-                cardNumbers[rowIdx][2] = nNums.get(rowIdx < 2 ? rowIdx : rowIdx - 1);
-                addCell(row, rowIdx, 2);
+        // Create and insert GameInfo object; the seed allows the round to be replayed
+        GameInfo gameInfo = new GameInfo(username, snapshot.getRound(), null, timestamp, snapshot.getSeed());
+        // Stored packed; the winning numbers are derived from it
+        gameInfo.setCard(snapshot.getCardLow(), snapshot.getCardHigh(),
+                BingoCard.lineMask(snapshot.getWinningLine()), snapshot.getMarks());
+        try {
+            // Written in the background; a queue full of failing writes must not stall the
+            // engine, which onDestroy() waits for
+            if (!gameInfoWriter.offer(gameInfo, STORE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "Game info queue full, round " + snapshot.getRound() + " not stored");
             }
-
-            // G column
-            cardNumbers[rowIdx][3] = gNums.get(rowIdx);
-            addCell(row, rowIdx, 3);
-
-            // O column
-            cardNumbers[rowIdx][4] = oNums.get(rowIdx);
-            addCell(row, rowIdx, 4);
-
-            bingoCardContainer.addView(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-
-        // Reset marks and available numbers
-        resetMarks();
-        resetAvailableNumbers();
-        tvDrawn.setText("Drawn: ");
     }
 
     /**
-     * Generates a list of unique shuffled numbers in a given range.
-     * @param min Minimum number (inclusive)
-     * @param max Maximum number (inclusive)
-     * @param count Number of unique numbers to generate
-     * @return List of unique numbers
+     * Stops auto-draw (remembering it for onResume()) and pauses the engine without waiting
+     * for it; once its queued commands have run, the engine hands the final snapshot to
+     * saveState, so the saved game cannot miss a Bingo or its stored flag that a turbo run or
+     * a pending tick was about to reach.
      */
-    private List<Integer> generateUniqueNums(int min, int max, int count) {
-        List<Integer> nums = new ArrayList<>();
-        for (int i = min; i <= max; i++) {
-            nums.add(i);
+    private void pauseGame() {
+        if (drawScheduler.isRunning()) {
+            autoDrawPaused = true;
+            stopAutoDraw();
         }
-        Collections.shuffle(nums);
-        return nums.subList(0, count);
+        engine.pause(saveState);
     }
 
     /**
-     * Adds a cell (TextView) to a row with the number from cardNumbers.
-     * @param row The LinearLayout row to add to
-     * @param rowIdx Row index
-     * @param colIdx Column index
+     * Starts the auto-draw feature at the configured interval, updating button UI.
      */
-    private void addCell(LinearLayout row, int rowIdx, int colIdx) {
-        TextView tv = createTextView(String.valueOf(cardNumbers[rowIdx][colIdx]), Color.BLACK);
-        cardViews[rowIdx][colIdx] = tv;
-        row.addView(tv);
-    }
-
-    /**
-     * Creates a styled TextView for a Bingo cell.
-     * @param text Text to display (number or "FREE")
-     * @param textColor Color of the text
-     * @return Configured TextView
-     */
-    private TextView createTextView(String text, int textColor) {
-        TextView tv = new TextView(this);
-        tv.setText(text);
-        tv.setTextColor(textColor);
-        tv.setPadding(16, 16, 16, 16);
-        tv.setLayoutParams(new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1));
-        tv.setGravity(Gravity.CENTER);
-        tv.setBackgroundColor(Color.WHITE);
-        tv.setBackgroundResource(android.R.drawable.dialog_holo_light_frame);  // Add border
-        return tv;
+    private void startAutoDraw() {
+        GameSnapshot snapshot = engine.getSnapshot();
+        if (snapshot.isDeckEmpty()) {
+            showNoMoreNumbersDialog();
+            return;
+        }
+        // Nothing left to auto-draw after a Bingo
+        if (snapshot.hasBingo()) return;
+        btnAutoDraw.setText("Stop Auto Draw");
+        btnAutoDraw.setBackgroundTintList(getResources().getColorStateList(android.R.color.holo_green_dark));
+        long interval = sharedPreferences.getLong(DrawScheduler.PREF_INTERVAL_MS, DrawScheduler.DEFAULT_INTERVAL_MS);
+        drawScheduler.start(interval);  // First draw after one interval, at once in turbo
     }
 
     /**
-     * Resets all marks on the card except the FREE center, updates UI.
+     * Stops the auto-draw feature, updating button UI.
      */
-    private void resetMarks() {
-        for (int i = 0; i < 5; i++) {
-            for (int j = 0; j < 5; j++) {
-                marked[i][j] = (i == 2 && j == 2);  // Only FREE is marked
-                if (cardViews[i][j] != null) {
-                    cardViews[i][j].setText(i == 2 && j == 2 ? "FREE" : String.valueOf(cardNumbers[i][j]));
-                    cardViews[i][j].setBackgroundColor(Color.WHITE);
-                }
-            }
-        }
+    private void stopAutoDraw() {
+        drawScheduler.stop();
+        showAutoDrawStopped();
     }
 
     /**
-     * Resets the list of available numbers to 1-75, shuffled.
+     * Restores the auto-draw button after auto-draw has stopped.
      */
-    private void resetAvailableNumbers() {
-        availableNumbers.clear();
-        for (int i = 1; i <= 75; i++) {
-            availableNumbers.add(i);
-        }
-        Collections.shuffle(availableNumbers);
+    private void showAutoDrawStopped() {
+        btnAutoDraw.setText("Start Auto Draw");
+        btnAutoDraw.setBackgroundTintList(getResources().getColorStateList(android.R.color.holo_orange_dark));
     }
 
     /**
-     * Checks if there is a Bingo (full row, column, or diagonal).
-     * @return true if Bingo detected, false otherwise
+     * Shows the metrics dump with buttons to toggle collection and clear the numbers.
      */
-    private boolean hasBingo() {
-        // Check rows
-        for (int i = 0; i < 5; i++) {
-            if (isLineMarked(marked[i])) return true;
-        }
-
-        // Check columns
-        for (int j = 0; j < 5; j++) {
-            boolean colMarked = true;
-            for (int i = 0; i < 5; i++) {
-                if (!marked[i][j]) {
-                    colMarked = false;
-                    break;
-                }
-            }
-            if (colMarked) return true;
-        }
-
-        // Check main diagonal
-        boolean diag1 = true;
-        for (int i = 0; i < 5; i++) {
-            if (!marked[i][i]) diag1 = false;
-        }
-        if (diag1) return true;
-
-        // Check anti-diagonal
-        boolean diag2 = true;
-        for (int i = 0; i < 5; i++) {
-            if (!marked[i][4 - i]) diag2 = false;
-        }
-        if (diag2) return true;
-
-        return false;
+    private void showMetricsDialog() {
+        new AlertDialog.Builder(MainActivity.this)
+                .setTitle("Metrics")
+                .setMessage(Metrics.dumpText())
+                .setPositiveButton(Metrics.isEnabled() ? "Disable" : "Enable", new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        Metrics.setEnabled(!Metrics.isEnabled());
+                    }
+                })
+                .setNeutralButton("Reset", new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        Metrics.reset();
+                    }
+                })
+                .setNegativeButton("Close", null)
+                .show();
     }
 
     /**
-     * Checks if a single line (row or passed array) is fully marked.
-     * @param line Boolean array representing the line
-     * @return true if all marked, false otherwise
+     * Shows a dialog when no more numbers are available to draw.
      */
-    private boolean isLineMarked(boolean[] line) {
-        for (boolean b : line) {
-            if (!b) return false;
-        }
-        return true;
+    private void showNoMoreNumbersDialog() {
+        new AlertDialog.Builder(MainActivity.this)
+                .setMessage("No more numbers to draw!")
+                .setPositiveButton("OK", null)
+                .show();
     }
-}
\ No newline at end of file
+}
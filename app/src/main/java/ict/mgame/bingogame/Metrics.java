@@ -0,0 +1,127 @@
+package ict.mgame.bingogame;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics class is the app's instrumentation registry: one LatencyHistogram per timed
+ * operation plus lock-free event counters, dumped as text or JSON.
+ * Timing follows one pattern everywhere:
+ * <pre>
+ *     long start = Metrics.start();
+ *     ...
+ *     Metrics.DRAW.recordSince(start);
+ * </pre>
+ * While disabled, start() returns 0 without reading the clock and recordSince(0) returns at
+ * once, so the cost is one volatile read and a branch.
+ */
+public final class Metrics {
+
+    // Timed operations
+    public static final LatencyHistogram DRAW = new LatencyHistogram("draw");
+    public static final LatencyHistogram WIN_CHECK = new LatencyHistogram("win_check");
+    public static final LatencyHistogram NEW_CARD = new LatencyHistogram("new_card");
+    public static final LatencyHistogram RENDER = new LatencyHistogram("render");
+    public static final LatencyHistogram DB_INSERT = new LatencyHistogram("db_insert");
+    public static final LatencyHistogram HISTORY_PAGE = new LatencyHistogram("history_page");
+    public static final LatencyHistogram RESUME = new LatencyHistogram("resume");
+    public static final LatencyHistogram POOL_REFILL = new LatencyHistogram("pool_refill");
+    public static final LatencyHistogram ODDS = new LatencyHistogram("odds");
+
+    // Event counters
+    public static final AtomicLong DRAWS = new AtomicLong();
+    public static final AtomicLong WINS = new AtomicLong();
+    public static final AtomicLong ROWS_WRITTEN = new AtomicLong();
+    public static final AtomicLong POOL_HITS = new AtomicLong();
+    public static final AtomicLong POOL_MISSES = new AtomicLong();
+
+    // Every histogram, in dump order
+    private static final LatencyHistogram[] HISTOGRAMS = {DRAW, WIN_CHECK, NEW_CARD, RENDER, DB_INSERT, HISTORY_PAGE, RESUME, POOL_REFILL, ODDS};
+    // Every counter with its name, in dump order
+    private static final String[] COUNTER_NAMES = {"draws", "wins", "rows_written", "pool_hits", "pool_misses"};
+    private static final AtomicLong[] COUNTERS = {DRAWS, WINS, ROWS_WRITTEN, POOL_HITS, POOL_MISSES};
+
+    // Whether timings and counts are collected
+    private static volatile boolean enabled = false;
+
+    /**
+     * Starts timing an operation.
+     * @return Start time in nanoseconds, or 0 while metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds to a counter while metrics are enabled.
+     * @param counter One of the counters above
+     * @param delta Amount to add
+     */
+    public static void count(AtomicLong counter, long delta) {
+        if (enabled) counter.addAndGet(delta);
+    }
+
+    // Getter for enabled
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Setter for enabled
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Clears every histogram and counter.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        for (AtomicLong counter : COUNTERS) {
+            counter.set(0);
+        }
+    }
+
+    /**
+     * Formats all metrics as text, one line per operation and counter.
+     * @return Human-readable dump
+     */
+    public static String dumpText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("metrics ").append(enabled ? "enabled" : "disabled").append('\n');
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            sb.append(histogram).append('\n');
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            sb.append(String.format(Locale.ROOT, "%-14s %d%n", COUNTER_NAMES[i], COUNTERS[i].get()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats all metrics as one JSON object; latencies are in nanoseconds.
+     * @return JSON dump, e.g. {"enabled":true,"latency":{"draw":{"count":3,...}},"counters":{...}}
+     */
+    public static String dumpJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"enabled\":").append(enabled).append(",\"latency\":{");
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            LatencyHistogram h = HISTOGRAMS[i];
+            if (i > 0) sb.append(',');
+            sb.append('"').append(h.getName()).append("\":{\"count\":").append(h.getCount())
+                    .append(",\"p50\":").append(h.getPercentile(50))
+                    .append(",\"p99\":").append(h.getPercentile(99))
+                    .append(",\"max\":").append(h.getMax()).append('}');
+        }
+        sb.append("},\"counters\":{");
+        for (int i = 0; i < COUNTERS.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(COUNTER_NAMES[i]).append("\":").append(COUNTERS[i].get());
+        }
+        return sb.append("}}").toString();
+    }
+
+    private Metrics() {
+    }
+}
@@ -0,0 +1,147 @@
+package ict.mgame.bingogame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OddsCalculator class computes the exact probability that a 75-ball card completes a line
+ * within the next k calls, given its marks and how many numbers are left in the deck.
+ *
+ * Every unmarked number on the card is still in the deck, and the next k calls are a uniform
+ * k-subset of the R remaining numbers, so a set of u given numbers is all called with
+ * probability C(R-u, k-u) / C(R, k). By inclusion-exclusion over the 12 lines,
+ * P(Bingo within k) = sum over non-empty line sets S of (-1)^(|S|+1) * that term, with u the
+ * number of unmarked cells in the union of S. The sum splits into two cached parts:
+ * <ul>
+ *     <li>per marks mask, the signed count of line sets by union size (4095 subsets, each
+ *     union built from a smaller one with one OR);</li>
+ *     <li>per (R, k), the 26 hypergeometric terms, built incrementally.</li>
+ * </ul>
+ * A query is then a 26-term dot product. Not thread-safe: give each thread its own instance.
+ */
+public final class OddsCalculator {
+
+    // Line sets over the 12 lines
+    private static final int SUBSETS = 1 << BingoCard.LINE_COUNT;
+    // Coefficient rows kept, by marks mask
+    private static final int CACHE_SIZE = 256;
+
+    // Signed line-set counts by union size, most recently used last
+    private final LinkedHashMap<Integer, int[]> coefficients = new LinkedHashMap<Integer, int[]>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // Hypergeometric terms by (remaining, calls), filled on first use
+    private final double[][] terms = new double[(BingoCard.MAX_NUMBER + 1) * (BingoCard.MAX_NUMBER + 1)][];
+    // Scratch: unmarked cells in the union of each line set
+    private final int[] unions = new int[SUBSETS];
+
+    /**
+     * Probability that the card has a Bingo within the next calls.
+     * @param marks 25-bit mask of marked cells, FREE included
+     * @param remaining Numbers left in the deck (75 minus the numbers drawn)
+     * @param calls Number of calls ahead
+     * @return Probability in [0, 1]; 1 if a line is already complete
+     */
+    public double probability(int marks, int remaining, int calls) {
+        return evaluate(coefficients(marks), remaining, calls);
+    }
+
+    /**
+     * Probabilities of a Bingo within 0, 1, ..., maxCalls calls, sharing one coefficient row.
+     * @param marks 25-bit mask of marked cells, FREE included
+     * @param remaining Numbers left in the deck
+     * @param maxCalls Largest number of calls ahead
+     * @return Array of maxCalls + 1 probabilities, non-decreasing
+     */
+    public double[] curve(int marks, int remaining, int maxCalls) {
+        int[] coefficient = coefficients(marks);
+        double[] odds = new double[maxCalls + 1];
+        for (int calls = 0; calls <= maxCalls; calls++) {
+            odds[calls] = evaluate(coefficient, remaining, calls);
+        }
+        return odds;
+    }
+
+    /**
+     * Batch mode for hall displays: scores many cards against the same deck state.
+     * Cards with equal marks share one coefficient row, and all share one term row.
+     * @param marks Marks mask of each card
+     * @param remaining Numbers left in the deck
+     * @param calls Number of calls ahead
+     * @param out Receives each card's probability; at least marks.length long
+     */
+    public void probabilities(int[] marks, int remaining, int calls, double[] out) {
+        for (int i = 0; i < marks.length; i++) {
+            out[i] = evaluate(coefficients(marks[i]), remaining, calls);
+        }
+    }
+
+    // Dot product of a coefficient row with the (remaining, calls) terms
+    private double evaluate(int[] coefficient, int remaining, int calls) {
+        if (remaining < 0 || remaining > BingoCard.MAX_NUMBER) {
+            throw new IllegalArgumentException("Bad remaining count: " + remaining);
+        }
+        if (coefficient == null) return 1.0;  // A line is already complete
+        calls = Math.max(0, Math.min(calls, remaining));
+        double[] term = terms(remaining, calls);
+        double p = 0;
+        for (int u = 1; u <= calls && u <= BingoCard.CELLS; u++) {
+            p += coefficient[u] * term[u];
+        }
+        // Cancellation leaves rounding noise of order 1e-13
+        return Math.max(0.0, Math.min(1.0, p));
+    }
+
+    /**
+     * Returns the signed line-set counts by union size for a marks mask, from the cache.
+     * @param marks Marks mask
+     * @return coefficient[u] = sum of (-1)^(|S|+1) over line sets S whose union has u unmarked
+     *         cells, or null if a line is already complete
+     */
+    private int[] coefficients(int marks) {
+        int[] coefficient = coefficients.get(marks);
+        if (coefficient != null || coefficients.containsKey(marks)) return coefficient;
+
+        int[] lineUnmarked = new int[BingoCard.LINE_COUNT];
+        for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+            lineUnmarked[line] = BingoCard.lineMask(line) & ~marks;
+            if (lineUnmarked[line] == 0) {
+                coefficients.put(marks, null);
+                return null;
+            }
+        }
+        coefficient = new int[BingoCard.CELLS + 1];
+        unions[0] = 0;
+        for (int set = 1; set < SUBSETS; set++) {
+            // The union of a set is the union without its lowest line, plus that line
+            unions[set] = unions[set & (set - 1)] | lineUnmarked[Integer.numberOfTrailingZeros(set)];
+            coefficient[Integer.bitCount(unions[set])] += (Integer.bitCount(set) & 1) != 0 ? 1 : -1;
+        }
+        coefficients.put(marks, coefficient);
+        return coefficient;
+    }
+
+    /**
+     * Returns term[u] = C(R-u, k-u) / C(R, k), the chance that u given numbers are all among
+     * the next k of R, for u = 0..min(k, 25); each is the previous times (k-u+1) / (R-u+1).
+     * @param remaining R
+     * @param calls k, at most R
+     * @return Cached term row
+     */
+    private double[] terms(int remaining, int calls) {
+        int key = remaining * (BingoCard.MAX_NUMBER + 1) + calls;
+        double[] term = terms[key];
+        if (term == null) {
+            term = new double[BingoCard.CELLS + 1];
+            term[0] = 1.0;
+            for (int u = 1; u <= calls && u <= BingoCard.CELLS; u++) {
+                term[u] = term[u - 1] * (calls - u + 1) / (remaining - u + 1);
+            }
+            terms[key] = term;
+        }
+        return term;
+    }
+}
@@ -0,0 +1,125 @@
+package ict.mgame.bingogame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PatternSet class evaluates up to 64 active win patterns together.
+ * All pattern masks are merged into one table of distinct masks, each tagged with the bit set
+ * of the patterns it completes, and indexed by cell. After a draw only the masks through the
+ * newly marked cell are tested, so a draw costs the same however many patterns exist that do
+ * not touch the cell. Pattern state (which ones already completed) is kept by the caller as a
+ * long, so one PatternSet can be shared by any number of cards and threads.
+ */
+public final class PatternSet {
+
+    // Maximum number of patterns (one bit each in a long)
+    public static final int MAX_PATTERNS = 64;
+
+    // Active patterns, bit i of a result refers to patterns[i]
+    private final WinPattern[] patterns;
+    // Distinct masks and, for each, the patterns it completes
+    private final int[] masks;
+    private final long[] maskPatterns;
+    // For each cell, the indexes of the masks that include it
+    private final int[][] masksByCell = new int[BingoCard.CELLS][];
+
+    /**
+     * Compiles a set of patterns.
+     * @param patterns Patterns to activate (at most 64)
+     */
+    public PatternSet(WinPattern... patterns) {
+        if (patterns.length > MAX_PATTERNS) {
+            throw new IllegalArgumentException("At most " + MAX_PATTERNS + " patterns");
+        }
+        this.patterns = patterns.clone();
+
+        Map<Integer, Long> merged = new LinkedHashMap<>();
+        for (int p = 0; p < patterns.length; p++) {
+            for (int m = 0; m < patterns[p].getMaskCount(); m++) {
+                int mask = patterns[p].getMask(m);
+                Long bits = merged.get(mask);
+                merged.put(mask, (bits == null ? 0L : bits) | (1L << p));
+            }
+        }
+        masks = new int[merged.size()];
+        maskPatterns = new long[merged.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Long> entry : merged.entrySet()) {
+            masks[i] = entry.getKey();
+            maskPatterns[i] = entry.getValue();
+            i++;
+        }
+
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            List<Integer> ids = new ArrayList<>();
+            for (int m = 0; m < masks.length; m++) {
+                if ((masks[m] & (1 << cell)) != 0) ids.add(m);
+            }
+            masksByCell[cell] = new int[ids.size()];
+            for (int k = 0; k < ids.size(); k++) {
+                masksByCell[cell][k] = ids.get(k);
+            }
+        }
+    }
+
+    /**
+     * Reports the patterns completed by marking a cell.
+     * @param marks 25-bit marks mask, already including the new cell
+     * @param cell Cell that was just marked
+     * @param completed Patterns already completed before this draw
+     * @return Bits of the patterns that completed on this draw
+     */
+    public long evaluate(int marks, int cell, long completed) {
+        long fresh = 0;
+        for (int m : masksByCell[cell]) {
+            int mask = masks[m];
+            if ((marks & mask) == mask) {
+                fresh |= maskPatterns[m];
+            }
+        }
+        return fresh & ~completed;
+    }
+
+    /**
+     * Reports every pattern complete for a set of marks, e.g. after restoring a card.
+     * @param marks 25-bit marks mask
+     * @return Bits of all complete patterns
+     */
+    public long evaluateAll(int marks) {
+        long done = 0;
+        for (int m = 0; m < masks.length; m++) {
+            if ((marks & masks[m]) == masks[m]) {
+                done |= maskPatterns[m];
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Returns the active pattern for a result bit.
+     * @param index Bit index (0-63)
+     * @return Pattern at that index
+     */
+    public WinPattern getPattern(int index) {
+        return patterns[index];
+    }
+
+    // Getter for the number of active patterns
+    public int size() {
+        return patterns.length;
+    }
+
+    // Getter for the number of distinct masks after merging
+    public int getMaskCount() {
+        return masks.length;
+    }
+
+    @Override
+    public String toString() {
+        return "PatternSet" + Arrays.toString(patterns);
+    }
+}
@@ -0,0 +1,127 @@
+package ict.mgame.bingogame;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RoundPool class keeps a bounded ring buffer of ready rounds (card dealt, deck shuffled),
+ * refilled by one low-priority producer thread, so starting a new round costs a single poll.
+ * The ring is lock-free: the producer publishes a slot by advancing the tail, consumers claim
+ * one by a compare-and-set on the head, and the producer parks while the ring is full.
+ * A taken slot keeps its old reference until the producer overwrites it; nothing else reads it.
+ */
+public final class RoundPool {
+
+    // Rounds kept ready by the shared pool (a power of two)
+    public static final int DEFAULT_CAPACITY = 8;
+
+    // Shared pool, created and started by getInstance()
+    private static RoundPool instance;
+
+    // Ready rounds, indexed by sequence number & mask
+    private final BingoRound[] ring;
+    private final int mask;
+    // Sequence number of the next round to take
+    private final AtomicLong head = new AtomicLong();
+    // Sequence number of the next slot to fill
+    private final AtomicLong tail = new AtomicLong();
+    // Random source for seeds, used only by the producer
+    private final BingoRng seedRng;
+    // Producer thread
+    private final Thread producer;
+    // Set by shutdown()
+    private volatile boolean stopped;
+
+    /**
+     * Returns the shared pool, starting its producer on first use; call early to warm it.
+     * @return Shared pool
+     */
+    public static synchronized RoundPool getInstance() {
+        if (instance == null) {
+            instance = new RoundPool(DEFAULT_CAPACITY, new SplitMixRng());
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor for RoundPool; call start() to begin filling.
+     * @param capacity Number of rounds to keep ready, a power of two
+     * @param seedRng Random source for round seeds; used only by the producer thread
+     */
+    public RoundPool(int capacity, BingoRng seedRng) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.ring = new BingoRound[capacity];
+        this.mask = capacity - 1;
+        this.seedRng = seedRng;
+        this.producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                produce();
+            }
+        }, "RoundPool");
+        producer.setPriority(Thread.MIN_PRIORITY);
+        producer.setDaemon(true);
+    }
+
+    /**
+     * Starts the producer thread.
+     */
+    public void start() {
+        producer.start();
+    }
+
+    /**
+     * Takes a ready round without blocking, and wakes the producer to replace it.
+     * @return Round with no numbers drawn, or null if the pool is empty (a miss)
+     */
+    public BingoRound poll() {
+        while (true) {
+            long h = head.get();
+            if (h == tail.get()) {
+                Metrics.count(Metrics.POOL_MISSES, 1);
+                LockSupport.unpark(producer);
+                return null;
+            }
+            // Read before claiming: the producer cannot reuse the slot until head passes it
+            BingoRound round = ring[(int) h & mask];
+            if (head.compareAndSet(h, h + 1)) {
+                Metrics.count(Metrics.POOL_HITS, 1);
+                LockSupport.unpark(producer);
+                return round;
+            }
+        }
+    }
+
+    // Getter for the number of ready rounds
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Stops the producer and waits for it; ready rounds can still be taken.
+     */
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        LockSupport.unpark(producer);
+        producer.join();
+    }
+
+    // Producer loop: fills free slots, parks while the ring is full
+    private void produce() {
+        while (!stopped) {
+            long t = tail.get();
+            if (t - head.get() > mask) {
+                LockSupport.park(this);
+                continue;
+            }
+            long start = Metrics.start();
+            ring[(int) t & mask] = BingoRound.create(BingoRound.newSeed(seedRng));
+            // Publishes the slot to consumers
+            tail.set(t + 1);
+            Metrics.POOL_REFILL.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ict.mgame.bingogame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RoundVerifier class re-plays stored rounds from their seeds and checks that the
+ * recorded winning numbers match what the seed produces.
+ * A replay is a card generation, a shuffle and at most 75 marks, so thousands of
+ * stored rounds can be checked per second.
+ */
+public final class RoundVerifier {
+
+    /**
+     * Checks a single stored round.
+     * @param gameInfo Stored round
+     * @return true if the seed reproduces the recorded winning numbers
+     */
+    public static boolean verify(GameInfo gameInfo) {
+        if (gameInfo.getSeed() == BingoRound.NO_SEED) return false;
+        BingoRound round = BingoRound.replay(gameInfo.getSeed());
+        return round.getCard().getWinningNumbers().equals(gameInfo.getWinningNumbers());
+    }
+
+    /**
+     * Report class summarizes a batch verification.
+     */
+    public static final class Report {
+        // Rounds that were replayed and matched
+        private int verified;
+        // Rounds stored without a seed, which cannot be replayed
+        private int unseeded;
+        // Rounds whose replay did not match the stored winning numbers
+        private final List<GameInfo> mismatches = new ArrayList<>();
+
+        // Getter for the number of matching rounds
+        public int getVerified() {
+            return verified;
+        }
+
+        // Getter for the number of rounds without a seed
+        public int getUnseeded() {
+            return unseeded;
+        }
+
+        // Getter for the rounds that failed verification
+        public List<GameInfo> getMismatches() {
+            return mismatches;
+        }
+    }
+
+    /**
+     * Checks a batch of stored rounds.
+     * @param gameInfos Stored rounds
+     * @return Report with counts and the mismatching rounds
+     */
+    public static Report verifyAll(Iterable<GameInfo> gameInfos) {
+        Report report = new Report();
+        for (GameInfo gameInfo : gameInfos) {
+            if (gameInfo.getSeed() == BingoRound.NO_SEED) {
+                report.unseeded++;
+            } else if (verify(gameInfo)) {
+                report.verified++;
+            } else {
+                report.mismatches.add(gameInfo);
+            }
+        }
+        return report;
+    }
+
+    private RoundVerifier() {
+    }
+}
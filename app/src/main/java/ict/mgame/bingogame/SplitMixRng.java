@@ -0,0 +1,46 @@
+package ict.mgame.bingogame;
+
+/**
+ * SplitMixRng class is a small, fast, seedable BingoRng (SplitMix64).
+ * Not thread-safe; give each thread its own instance.
+ */
+public final class SplitMixRng implements BingoRng {
+
+    // Weyl sequence increment (golden ratio)
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // Current generator state
+    private long state;
+
+    /**
+     * Constructor seeded from the clock, for rounds that do not need to be replayed.
+     */
+    public SplitMixRng() {
+        this(mix(System.nanoTime() ^ System.currentTimeMillis()));
+    }
+
+    /**
+     * Constructor with an explicit seed; the same seed always gives the same sequence.
+     * @param seed Seed value
+     */
+    public SplitMixRng(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * SplitMix64 finalizer; also useful to derive independent seeds from counters.
+     * @param z Input value
+     * @return Mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
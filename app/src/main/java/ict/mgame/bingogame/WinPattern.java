@@ -0,0 +1,152 @@
+package ict.mgame.bingogame;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * WinPattern class is a named winning shape compiled to one or more 25-bit cell masks.
+ * The pattern is complete as soon as every cell of any one of its masks is marked.
+ *
+ * Definition format: alternatives separated by '|', each an optional placement and a grid.
+ * Grid rows are separated by '/', with 'X' for a required cell and '.' for any other cell.
+ * Placements:
+ *   "at:"       the grid is used as written, anchored at the top-left (default)
+ *   "anywhere:" the grid is placed at every position where it fits on the card
+ *   "corners:"  the grid is placed flush against each of the four corners
+ * For example "corners:XX/XX" is a postage stamp and "anywhere:XXXXX" is any full row.
+ */
+public final class WinPattern {
+
+    // Standard line Bingo: any row, column or diagonal (same lines as BingoCard)
+    public static final WinPattern LINE = parse("Line",
+            "anywhere:XXXXX | anywhere:X/X/X/X/X"
+                    + " | X..../.X.../..X../...X./....X | ....X/...X./..X../.X.../X....");
+    // The four corner cells
+    public static final WinPattern FOUR_CORNERS = parse("Four Corners", "X...X/...../...../...../X...X");
+    // Both diagonals together
+    public static final WinPattern X = parse("X", "X...X/.X.X./..X../.X.X./X...X");
+    // A 2x2 block in any corner
+    public static final WinPattern POSTAGE_STAMP = parse("Postage Stamp", "corners:XX/XX");
+    // The outer border
+    public static final WinPattern PICTURE_FRAME = parse("Picture Frame", "XXXXX/X...X/X...X/X...X/XXXXX");
+    // Every cell
+    public static final WinPattern BLACKOUT = parse("Blackout", "XXXXX/XXXXX/XXXXX/XXXXX/XXXXX");
+
+    // Display name
+    private final String name;
+    // Alternative cell masks, deduplicated
+    private final int[] masks;
+
+    /**
+     * Constructor for a pattern from precompiled masks.
+     * @param name Display name
+     * @param masks Alternative 25-bit cell masks
+     */
+    public WinPattern(String name, int[] masks) {
+        if (masks.length == 0) throw new IllegalArgumentException("A pattern needs at least one mask");
+        this.name = name;
+        this.masks = masks.clone();
+    }
+
+    /**
+     * Compiles a pattern definition (see the class comment for the format).
+     * @param name Display name
+     * @param definition Pattern definition
+     * @return Compiled pattern
+     */
+    public static WinPattern parse(String name, String definition) {
+        Set<Integer> masks = new LinkedHashSet<>();
+        for (String alternative : definition.split("\\|")) {
+            String text = alternative.trim();
+            String placement = "at";
+            int colon = text.indexOf(':');
+            if (colon >= 0) {
+                placement = text.substring(0, colon).trim();
+                text = text.substring(colon + 1).trim();
+            }
+            String[] rows = text.split("/");
+            int height = rows.length;
+            int width = rows[0].length();
+            if (height > BingoCard.SIZE || width > BingoCard.SIZE) {
+                throw new IllegalArgumentException("Grid larger than the card: " + text);
+            }
+            int shape = 0;
+            for (int r = 0; r < height; r++) {
+                if (rows[r].length() != width) {
+                    throw new IllegalArgumentException("Ragged grid: " + text);
+                }
+                for (int c = 0; c < width; c++) {
+                    char ch = rows[r].charAt(c);
+                    if (ch == 'X') {
+                        shape |= 1 << (r * BingoCard.SIZE + c);
+                    } else if (ch != '.') {
+                        throw new IllegalArgumentException("Unexpected '" + ch + "' in " + text);
+                    }
+                }
+            }
+            if (shape == 0) throw new IllegalArgumentException("Empty grid: " + text);
+
+            int maxRow = BingoCard.SIZE - height;
+            int maxCol = BingoCard.SIZE - width;
+            switch (placement) {
+                case "at":
+                    masks.add(shape);
+                    break;
+                case "anywhere":
+                    for (int r = 0; r <= maxRow; r++) {
+                        for (int c = 0; c <= maxCol; c++) {
+                            masks.add(shape << (r * BingoCard.SIZE + c));
+                        }
+                    }
+                    break;
+                case "corners":
+                    masks.add(shape);
+                    masks.add(shape << maxCol);
+                    masks.add(shape << (maxRow * BingoCard.SIZE));
+                    masks.add(shape << (maxRow * BingoCard.SIZE + maxCol));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown placement: " + placement);
+            }
+        }
+        int[] compiled = new int[masks.size()];
+        int i = 0;
+        for (int mask : masks) {
+            compiled[i++] = mask;
+        }
+        return new WinPattern(name, compiled);
+    }
+
+    /**
+     * Checks the pattern against a set of marks.
+     * @param marks 25-bit marks mask
+     * @return true if any alternative is fully marked
+     */
+    public boolean isComplete(int marks) {
+        for (int mask : masks) {
+            if ((marks & mask) == mask) return true;
+        }
+        return false;
+    }
+
+    // Getter for the display name
+    public String getName() {
+        return name;
+    }
+
+    // Getter for the number of alternative masks
+    public int getMaskCount() {
+        return masks.length;
+    }
+
+    // Getter for an alternative mask
+    public int getMask(int index) {
+        return masks[index];
+    }
+
+    @Override
+    public String toString() {
+        return name + Arrays.toString(masks);
+    }
+}
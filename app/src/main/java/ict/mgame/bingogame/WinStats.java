@@ -0,0 +1,79 @@
+package ict.mgame.bingogame;
+
+/**
+ * WinStats class is one row of the aggregate win tables: the totals for one user
+ * or for one day, maintained by DBHelper as games are stored.
+ */
+public class WinStats {
+    // Username, or the day as "yyyy-MM-dd" for daily totals
+    private final String name;
+    // Number of wins
+    private final long wins;
+    // Sum of the round numbers of all wins
+    private final long roundSum;
+    // Lowest round number of any win
+    private final int bestRound;
+    // Timestamp of the latest win (in milliseconds)
+    private final long lastWin;
+
+    /**
+     * Constructor for WinStats.
+     * @param name Username or day
+     * @param wins Number of wins
+     * @param roundSum Sum of the winning round numbers
+     * @param bestRound Lowest winning round number
+     * @param lastWin Time of the latest win
+     */
+    public WinStats(String name, long wins, long roundSum, int bestRound, long lastWin) {
+        this.name = name;
+        this.wins = wins;
+        this.roundSum = roundSum;
+        this.bestRound = bestRound;
+        this.lastWin = lastWin;
+    }
+
+    // Getter for name
+    public String getName() {
+        return name;
+    }
+
+    // Getter for wins
+    public long getWins() {
+        return wins;
+    }
+
+    // Getter for roundSum
+    public long getRoundSum() {
+        return roundSum;
+    }
+
+    // Getter for bestRound
+    public int getBestRound() {
+        return bestRound;
+    }
+
+    // Getter for lastWin
+    public long getLastWin() {
+        return lastWin;
+    }
+
+    // Average round number per win, 0 without wins
+    public double getAverageRounds() {
+        return wins == 0 ? 0 : (double) roundSum / wins;
+    }
+
+    /**
+     * Checks whether two rows hold the same totals.
+     * @param other Row to compare with
+     * @return true if every field is equal
+     */
+    public boolean sameAs(WinStats other) {
+        return name.equals(other.name) && wins == other.wins && roundSum == other.roundSum
+                && bestRound == other.bestRound && lastWin == other.lastWin;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + wins + " wins, best round " + bestRound + ", avg " + getAverageRounds();
+    }
+}
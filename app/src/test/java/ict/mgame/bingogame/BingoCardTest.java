@@ -0,0 +1,113 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the BingoCard engine.
+ */
+public class BingoCardTest {
+
+    // Card with column ranges laid out in order: row r, column c holds c * 15 + r + 1
+    private static BingoCard orderedCard() {
+        int[] cells = new int[BingoCard.CELLS];
+        for (int r = 0; r < BingoCard.SIZE; r++) {
+            for (int c = 0; c < BingoCard.SIZE; c++) {
+                cells[r * BingoCard.SIZE + c] = c * 15 + r + 1;
+            }
+        }
+        return new BingoCard(cells);
+    }
+
+    @Test
+    public void generate_respectsColumnRangesAndFreeCenter() {
+        BingoCard card = BingoCard.generate(new SplitMixRng(42));
+        boolean[] seen = new boolean[BingoCard.MAX_NUMBER + 1];
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            int number = card.getNumber(cell);
+            if (cell == BingoCard.FREE_CELL) {
+                assertEquals(0, number);
+                assertTrue(card.isMarked(cell));
+                continue;
+            }
+            int col = cell % BingoCard.SIZE;
+            assertTrue(number >= col * 15 + 1 && number <= col * 15 + 15);
+            assertFalse(seen[number]);
+            seen[number] = true;
+            assertEquals(cell, card.cellOf(number));
+        }
+    }
+
+    @Test
+    public void mark_completesRow() {
+        BingoCard card = orderedCard();
+        assertEquals(-1, card.mark(15));  // Not on the card (row 4 holds 5)
+        card.mark(1);
+        card.mark(16);
+        card.mark(31);
+        card.mark(46);
+        assertFalse(card.hasBingo());
+        card.mark(61);
+        assertTrue(card.hasBingo());
+        assertEquals(0, card.getWinningLine());
+        assertEquals("1,16,31,46,61", card.getWinningNumbers());
+    }
+
+    @Test
+    public void mark_completesDiagonalsThroughFreeCenter() {
+        BingoCard card = orderedCard();
+        card.mark(5);   // Row 4, column 0
+        card.mark(19);  // Row 3, column 1
+        card.mark(47);  // Row 1, column 3
+        card.mark(61);  // Row 0, column 4
+        assertTrue(card.hasBingo());
+        assertEquals(11, card.getWinningLine());
+        assertEquals("61,47,FREE,19,5", card.getWinningNumbers());
+
+        card.resetMarks();
+        assertFalse(card.hasBingo());
+        assertEquals("", card.getWinningNumbers());
+    }
+
+    @Test
+    public void pack_roundTripsAndMatchesPackedGeneration() {
+        BingoCard card = BingoCard.generate(new SplitMixRng(5));
+        long[] packed = new long[2];
+        BingoCard.generatePacked(new SplitMixRng(5), packed, 0);
+        assertEquals(card.packedLow(), packed[0]);
+        assertEquals(card.packedHigh(), packed[1]);
+
+        BingoCard copy = BingoCard.unpack(packed[0], packed[1]);
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            assertEquals(card.getNumber(cell), copy.getNumber(cell));
+            assertEquals(card.getNumber(cell), BingoCard.unpackNumber(packed[0], packed[1], cell));
+        }
+    }
+
+    @Test
+    public void storedCard_decodesToSameWinningNumbers() {
+        BingoCard card = orderedCard();
+        for (int number : new int[]{3, 18, 48, 63}) {
+            card.mark(number);  // Row 2 through the FREE center
+        }
+        GameInfo stored = new GameInfo("Tommy", 1, null, 0L);
+        stored.setCard(card);
+
+        byte[] bytes = BingoCard.packedToBytes(stored.getCardLow(), stored.getCardHigh());
+        assertEquals(BingoCard.PACKED_BYTES, bytes.length);
+        assertEquals(card.packedLow(), BingoCard.packedLowFromBytes(bytes));
+        assertEquals(card.packedHigh(), BingoCard.packedHighFromBytes(bytes));
+        assertEquals("3,18,FREE,48,63", stored.getWinningNumbers());
+        assertEquals(card.getMarks(), stored.getMarksMask());
+
+        int[] numbers = new int[BingoCard.SIZE];
+        assertEquals(4, stored.getWinningNumbers(numbers));
+        assertArrayEquals(new int[]{3, 18, 48, 63}, Arrays.copyOf(numbers, 4));
+        GameInfo legacy = new GameInfo("Tommy", 1, "3,18,FREE,48,63", 0L);
+        assertEquals(4, legacy.getWinningNumbers(numbers));
+        assertArrayEquals(new int[]{3, 18, 48, 63}, Arrays.copyOf(numbers, 4));
+    }
+}
@@ -0,0 +1,47 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the multi-card BingoHall engine.
+ */
+public class BingoHallTest {
+
+    @Test
+    public void draw_reportsSameWinnersAsSingleCardEngine() {
+        BingoRng random = new SplitMixRng(7);
+        BingoHall hall = new BingoHall();
+        hall.addRandomCards(500, random);
+        DrawDeck deck = new DrawDeck();
+
+        for (int game = 0; game < 3; game++) {
+            hall.reset();
+            boolean[] reported = new boolean[hall.getCardCount()];
+            for (int id = 0; id < hall.getCardCount(); id++) {
+                hall.getCard(id).resetMarks();
+            }
+            deck.shuffle(random);
+            while (!deck.isEmpty()) {
+                int number = deck.draw();
+                int winners = hall.draw(number);
+                for (int i = 0; i < winners; i++) {
+                    int id = hall.getNewWinner(i);
+                    assertFalse(reported[id]);
+                    reported[id] = true;
+                }
+                for (int id = 0; id < hall.getCardCount(); id++) {
+                    BingoCard card = hall.getCard(id);
+                    boolean hadBingo = card.hasBingo();
+                    card.mark(number);
+                    if (!hadBingo) {
+                        assertEquals(card.hasBingo(), reported[id]);
+                        assertEquals(card.getWinningLine(), hall.getWinningLine(id));
+                    }
+                }
+            }
+            assertEquals(hall.getCardCount(), hall.getWinnerCount());
+        }
+    }
+}
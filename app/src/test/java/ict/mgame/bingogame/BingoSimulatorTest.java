@@ -0,0 +1,48 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for BingoSimulator.
+ */
+public class BingoSimulatorTest {
+
+    // Full CSV output of a run, which covers every aggregate
+    private static String csv(BingoSimulator.Result result) throws Exception {
+        StringWriter out = new StringWriter();
+        result.writeCsv(out);
+        return out.toString();
+    }
+
+    @Test
+    public void run_isReproducibleAtAnyThreadCount() throws Exception {
+        // Three blocks, the last one partial
+        BingoSimulator simulator = new BingoSimulator(2500, 10, 4);
+        BingoSimulator.Result single = simulator.run(1);
+        BingoSimulator.Result parallel = simulator.run(4);
+        assertEquals(csv(single), csv(parallel));
+        assertNotEquals(csv(single), csv(new BingoSimulator(2500, 10, 5).run(1)));
+
+        assertEquals(2500, single.getGames());
+        long firstBingos = 0;
+        long lineWins = 0;
+        double winners = 0;
+        for (int draw = 1; draw <= BingoCard.MAX_NUMBER; draw++) {
+            firstBingos += single.getFirstBingoCount(draw);
+            winners += single.getExpectedWinners(draw);
+        }
+        for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+            lineWins += single.getLineWins(line);
+        }
+        // Every game has a first Bingo, and every card wins by the end of the deck
+        assertEquals(single.getGames(), firstBingos);
+        assertEquals(single.firstBingoWinners, lineWins);
+        assertEquals(10.0, winners, 1e-9);
+        // No Bingo is possible before the fourth draw
+        assertEquals(0, single.getFirstBingoCount(3));
+    }
+}
@@ -0,0 +1,116 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for Board and BoardDefinition.
+ */
+public class BoardTest {
+
+    @Test
+    public void bingo75_matchesBingoCard() {
+        BoardDefinition def = BoardDefinition.BINGO_75;
+        assertEquals(BingoCard.LINE_COUNT, def.getLineCount());
+        for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+            int mask = 0;
+            for (int cell : def.getLine(line)) {
+                mask |= 1 << cell;
+            }
+            assertEquals(BingoCard.lineMask(line), mask);
+        }
+
+        for (long seed = 1; seed <= 200; seed++) {
+            Board board = Board.generate(def, new SplitMixRng(seed));
+            BingoRound round = BingoRound.create(seed);
+            BingoCard card = round.getCard();
+            for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+                assertEquals(card.getNumber(cell), board.getNumber(cell));
+            }
+            DrawDeck deck = round.getDeck();
+            while (!card.hasBingo()) {
+                int number = deck.draw();
+                assertEquals(card.mark(number), board.mark(number));
+                assertEquals(card.hasBingo(), board.hasBingo());
+            }
+            assertEquals(card.getWinningLine(), board.getWinningLine());
+        }
+    }
+
+    @Test
+    public void bingo90_ticketsHaveFiveNumbersPerRowAndWinOnARow() {
+        BoardDefinition def = BoardDefinition.BINGO_90;
+        SplitMixRng rng = new SplitMixRng(11);
+        for (int t = 0; t < 100; t++) {
+            Board ticket = Board.generate(def, rng);
+            assertEquals(15, ticket.getNumberCount());
+            for (int row = 0; row < 3; row++) {
+                int numbers = 0;
+                for (int col = 0; col < 9; col++) {
+                    int n = ticket.getNumber(row * 9 + col);
+                    if (n == 0) continue;
+                    numbers++;
+                    assertTrue(n >= def.getColumnLow(col) && n <= def.getColumnHigh(col));
+                }
+                assertEquals(5, numbers);
+            }
+            for (int col = 0; col < 9; col++) {
+                assertTrue(ticket.getNumber(col) + ticket.getNumber(9 + col) + ticket.getNumber(18 + col) > 0);
+            }
+
+            // Marking the five numbers of the middle row wins on line 1
+            for (int col = 0; col < 9; col++) {
+                int n = ticket.getNumber(9 + col);
+                if (n != 0) ticket.mark(n);
+            }
+            assertTrue(ticket.hasBingo());
+            assertEquals(1, ticket.getWinningLine());
+            assertEquals(5, ticket.getLineHits(1));
+            assertFalse(ticket.isFullHouse());
+        }
+    }
+
+    @Test
+    public void customBoard_countsFreeCellsAndIgnoresRepeats() {
+        // 7x7 with three free cells on the main diagonal
+        BoardDefinition def = BoardDefinition.grid("custom", 7, 7, 140, new int[] {0, 24, 48}, true);
+        Board board = Board.generate(def, new SplitMixRng(5));
+        int diagonal = 2 * 7;
+        assertEquals(3, board.getLineHits(diagonal));
+        int[] cells = def.getLine(diagonal);
+        for (int cell : cells) {
+            int n = board.getNumber(cell);
+            if (n == 0) continue;
+            assertEquals(cell, board.mark(n));
+            assertEquals(-1, board.mark(n));
+        }
+        assertTrue(board.hasBingo());
+        assertEquals(diagonal, board.getWinningLine());
+        assertEquals(1, board.getCompletedLineCount());
+
+        board.resetMarks();
+        assertFalse(board.hasBingo());
+        assertEquals(3, board.getLineHits(diagonal));
+    }
+
+    // A 3x3 board over 1-9 with the given free cells and lines
+    private static BoardDefinition threeByThree(int[] freeCells, int[][] lines) {
+        return new BoardDefinition("3x3", 3, 3, new int[] {1, 4, 7}, new int[] {3, 6, 9}, 3, freeCells, lines, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void freeCellOffTheGrid_isRejected() {
+        threeByThree(new int[] {9}, BoardDefinition.standardLines(3, 3, true, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lineCellOffTheGrid_isRejected() {
+        threeByThree(new int[0], new int[][] {{0, 1, 2}, {6, 7, -1}});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void repeatedCellInALine_isRejected() {
+        threeByThree(new int[0], new int[][] {{0, 1, 2}, {3, 4, 3}});
+    }
+}
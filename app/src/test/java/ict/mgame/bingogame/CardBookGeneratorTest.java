@@ -0,0 +1,61 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for CardBookGenerator.
+ */
+public class CardBookGeneratorTest {
+
+    // Generates a book into memory
+    private static byte[] book(long seed, int threads, long count) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new CardBookGenerator(seed, threads).generate(count, bytes);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void book_hasDistinctValidCardsAtAnyThreadCount() throws Exception {
+        // More than two batches, so batch order matters
+        int count = 20000;
+        byte[] single = book(12, 1, count);
+        assertArrayEquals(single, book(12, 4, count));
+        assertFalse(Arrays.equals(single, book(13, 1, count)));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(single));
+        assertEquals(CardBookGenerator.MAGIC, in.readInt());
+        assertEquals(count, in.readLong());
+        Set<String> cards = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            long lo = in.readLong();
+            long hi = in.readInt() & 0xFFFFFFFFL;
+            assertTrue(cards.add(lo + ":" + hi));
+            BingoCard card = BingoCard.unpack(lo, hi);
+            for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+                int number = card.getNumber(cell);
+                if (cell == BingoCard.FREE_CELL) {
+                    assertEquals(0, number);
+                } else {
+                    int col = cell % BingoCard.SIZE;
+                    assertTrue(number >= col * 15 + 1 && number <= col * 15 + 15);
+                }
+            }
+        }
+        assertEquals(-1, in.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oversizedBook_isRejectedUpFront() throws IOException, InterruptedException {
+        new CardBookGenerator(1, 1).generate(CardBookGenerator.MAX_CARDS + 1, new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,55 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the closed-form FinishingCallSolver.
+ */
+public class FinishingCallSolverTest {
+
+    @Test
+    public void solve_matchesDrawByDrawPlay() {
+        for (long seed = 1; seed <= 2000; seed++) {
+            BingoRound round = BingoRound.create(seed);
+            FinishingCallSolver solver = new FinishingCallSolver(round.getDeck());
+            int result = solver.solve(round.getCard());
+
+            int draws = round.playToBingo();
+            assertEquals(draws, FinishingCallSolver.callOf(result));
+            assertEquals(round.getCard().getWinningLine(), FinishingCallSolver.lineOf(result));
+        }
+    }
+
+    @Test
+    public void solveAll_findsEarliestWinnersAcrossBatch() {
+        BingoRng rng = new SplitMixRng(3);
+        DrawDeck deck = new DrawDeck();
+        deck.shuffle(rng);
+        BingoHall hall = new BingoHall();
+        hall.addRandomCards(3000, rng);
+
+        long[] packed = new long[hall.getCardCount() * 2];
+        for (int id = 0; id < hall.getCardCount(); id++) {
+            packed[2 * id] = hall.getCard(id).packedLow();
+            packed[2 * id + 1] = hall.getCard(id).packedHigh();
+        }
+        FinishingCallSolver.Result result = new FinishingCallSolver(deck).solveAll(packed, true);
+
+        int winners = 0;
+        while (winners == 0) {
+            winners = hall.draw(deck.draw());
+        }
+        assertEquals(deck.drawnCount(), result.getEarliestCall());
+        int[] earliest = result.getEarliestWinners();
+        assertEquals(winners, earliest.length);
+        for (int i = 0; i < winners; i++) {
+            int id = hall.getNewWinner(i);
+            assertTrue(Arrays.binarySearch(earliest, id) >= 0);
+            assertEquals(hall.getWinningLine(id), result.getWinningLine(id));
+        }
+    }
+}
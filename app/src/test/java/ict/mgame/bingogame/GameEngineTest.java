@@ -0,0 +1,170 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for GameEngine.
+ */
+public class GameEngineTest {
+
+    // Records listener calls; only the engine thread writes, and shutdown() joins it
+    private static class RecordingListener implements GameEngine.Listener {
+        final List<GameSnapshot> snapshots = new ArrayList<>();
+        final List<GameSnapshot> bingos = new ArrayList<>();
+
+        @Override
+        public void onSnapshot(GameSnapshot snapshot) {
+            snapshots.add(snapshot);
+        }
+
+        @Override
+        public void onBingo(GameSnapshot snapshot) {
+            bingos.add(snapshot);
+        }
+    }
+
+    @Test
+    public void commands_runInOrderAndMatchTheSeededRound() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SplitMixRng(42), listener);
+        GameSnapshot first = engine.getSnapshot();
+        assertEquals(1, first.getRound());
+        assertEquals(0, first.getDrawnCount());
+
+        engine.start();
+        for (int i = 0; i < 80; i++) {
+            engine.draw();  // The last 5 find the deck empty and are ignored
+        }
+        engine.newGame();
+        engine.shutdown();
+
+        // One snapshot per draw, then the new round
+        assertEquals(76, listener.snapshots.size());
+        GameSnapshot last = listener.snapshots.get(74);
+        assertTrue(last.isDeckEmpty());
+        assertEquals(BingoCard.ALL_CELLS, last.getMarks());
+        assertEquals(2, engine.getSnapshot().getRound());
+        assertEquals(0, engine.getSnapshot().getDrawnCount());
+
+        // Reported once, at the same draw a replay of the seed reaches Bingo
+        assertEquals(1, listener.bingos.size());
+        BingoRound replay = BingoRound.create(first.getSeed());
+        assertEquals(replay.playToBingo(), listener.bingos.get(0).getDrawnCount());
+        assertEquals(replay.getCard().getMarks(), listener.bingos.get(0).getMarks());
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            assertEquals(replay.getCard().getNumber(cell), first.getNumber(cell));
+        }
+    }
+
+    @Test
+    public void autoDraw_stopsAtBingo() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SplitMixRng(7), listener);
+        engine.start();
+        engine.runToEnd();
+        // The turbo run draws between commands, so wait for it before queuing the shutdown
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!engine.getSnapshot().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        engine.shutdown();
+
+        GameSnapshot last = engine.getSnapshot();
+        assertTrue(last.isFinished());
+        assertSame(last, listener.snapshots.get(listener.snapshots.size() - 1));
+        if (last.hasBingo()) {
+            // Nothing drawn after the Bingo
+            assertEquals(BingoRound.create(last.getSeed()).playToBingo(), last.getDrawnCount());
+        }
+    }
+
+    @Test
+    public void pause_handsOverTheFinalSnapshotOfATurboRun() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SplitMixRng(3), listener);
+        final BlockingQueue<GameSnapshot> pausedSnapshots = new LinkedBlockingQueue<>();
+        GameEngine.PauseListener pauseListener = new GameEngine.PauseListener() {
+            @Override
+            public void onPaused(GameSnapshot snapshot) {
+                pausedSnapshots.add(snapshot);
+            }
+        };
+        engine.start();
+        for (int round = 0; round < 20; round++) {
+            engine.runToEnd();
+            engine.pause(pauseListener);
+            GameSnapshot paused = pausedSnapshots.poll(5, TimeUnit.SECONDS);
+            assertNotNull(paused);
+            // Nothing runs after the pause, and a Bingo reached is already reported and stored
+            Thread.sleep(2);
+            assertSame(paused, engine.getSnapshot());
+            assertEquals(paused.hasBingo(), paused.isStoredBingo());
+            engine.newGame();
+        }
+        engine.shutdown();
+        // A stopped engine hands over its last snapshot at once
+        engine.pause(pauseListener);
+        assertSame(engine.getSnapshot(), pausedSnapshots.poll());
+    }
+
+    @Test
+    public void savedState_resumesWithoutReshuffling() throws Exception {
+        GameEngine engine = new GameEngine(new SplitMixRng(3), new RecordingListener());
+        engine.start();
+        for (int i = 0; i < 10; i++) {
+            engine.draw();
+        }
+        engine.shutdown();
+        GameSnapshot before = engine.getSnapshot();
+
+        File file = File.createTempFile("game_state", ".bin");
+        try {
+            GameStateStore.save(file, before);
+            assertEquals(GameStateStore.STATE_BYTES, file.length());
+            GameSnapshot loaded = GameStateStore.load(file);
+            assertNotNull(loaded);
+            assertArrayEquals(GameStateStore.encode(before), GameStateStore.encode(loaded));
+            assertEquals(before.getLastNumber(), loaded.getLastNumber());
+            assertEquals(before.getWinningLine(), loaded.getWinningLine());
+
+            // The resumed engine carries on with the rest of the same deck
+            RecordingListener listener = new RecordingListener();
+            GameEngine resumed = new GameEngine(new SplitMixRng(4), listener, loaded);
+            resumed.start();
+            for (int i = 0; i < 65; i++) {
+                resumed.draw();
+            }
+            resumed.shutdown();
+            DrawDeck deck = BingoRound.create(before.getSeed()).getDeck();
+            for (int i = 0; i < 10; i++) {
+                deck.draw();
+            }
+            for (GameSnapshot snapshot : listener.snapshots) {
+                assertEquals(1, snapshot.getRound());
+                assertEquals(deck.draw(), snapshot.getLastNumber());
+            }
+            assertTrue(deck.isEmpty());
+
+            // A damaged file is rejected rather than resumed
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(20);
+                int b = raf.read();
+                raf.seek(20);
+                raf.write(b ^ 1);
+            }
+            assertNull(GameStateStore.load(file));
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the history export/import formats.
+ */
+public class HistoryTransferTest {
+
+    // Rows covering a packed card, legacy text, a missing seed and awkward usernames
+    private static List<GameInfo> sampleRows() {
+        List<GameInfo> rows = new ArrayList<>();
+        BingoRound round = BingoRound.create(99);
+        round.playToBingo();
+        GameInfo packed = new GameInfo("Tommy", 3, null, 1700000000000L, round.getSeed());
+        packed.setCard(round.getCard());
+        rows.add(packed);
+        rows.add(new GameInfo("Ann, \"the\" caller\nline two", 1, "1,16,FREE,46,61", 1700000001000L));
+        rows.add(new GameInfo(null, 7, null, 1700000002000L, 12345L));
+        return rows;
+    }
+
+    // Stream that remembers whether it was closed
+    private static class TrackingStream extends ByteArrayInputStream {
+        boolean closed;
+
+        TrackingStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    // Reads rows back and compares them with the rows written
+    private static void assertRows(HistoryTransfer.Format format, List<GameInfo> rows, InputStream in) throws IOException {
+        try (HistoryTransfer.RowReader reader = new HistoryTransfer.RowReader(format, in)) {
+            for (GameInfo want : rows) {
+                GameInfo got = reader.read();
+                assertNotNull(format.name(), got);
+                assertEquals(format.name(), want.getUsername(), got.getUsername());
+                assertEquals(want.getRound(), got.getRound());
+                assertEquals(want.getTimestamp(), got.getTimestamp());
+                assertEquals(want.getSeed(), got.getSeed());
+                assertEquals(want.hasCard(), got.hasCard());
+                assertEquals(want.getCardLow(), got.getCardLow());
+                assertEquals(want.getCardHigh(), got.getCardHigh());
+                assertEquals(want.getMarksMask(), got.getMarksMask());
+                assertEquals(format.name(), want.getWinningNumbers(), got.getWinningNumbers());
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void everyFormat_roundTripsRows() throws Exception {
+        List<GameInfo> rows = sampleRows();
+        for (HistoryTransfer.Format format : HistoryTransfer.Format.values()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (HistoryTransfer.RowWriter writer = new HistoryTransfer.RowWriter(format, Channels.newChannel(bytes))) {
+                for (GameInfo row : rows) {
+                    writer.write(row);
+                }
+            }
+            assertRows(format, rows, new ByteArrayInputStream(bytes.toByteArray()));
+        }
+    }
+
+    @Test
+    public void gzipFile_roundTripsRows() throws Exception {
+        List<GameInfo> rows = sampleRows();
+        File file = File.createTempFile("history", ".gz");
+        try {
+            for (HistoryTransfer.Format format : HistoryTransfer.Format.values()) {
+                try (WritableByteChannel channel = HistoryTransfer.openChannel(file, true);
+                     HistoryTransfer.RowWriter writer = new HistoryTransfer.RowWriter(format, channel)) {
+                    for (GameInfo row : rows) {
+                        writer.write(row);
+                    }
+                }
+                try (InputStream in = HistoryTransfer.openInput(file)) {
+                    assertRows(format, rows, in);
+                }
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void badHeader_isRejectedAndClosesTheStream() {
+        byte[] wrong = "username,when\n".getBytes(StandardCharsets.UTF_8);
+        for (HistoryTransfer.Format format : new HistoryTransfer.Format[] {HistoryTransfer.Format.BINARY, HistoryTransfer.Format.CSV}) {
+            TrackingStream in = new TrackingStream(wrong);
+            try {
+                new HistoryTransfer.RowReader(format, in);
+                fail(format + " accepted a bad header");
+            } catch (IOException expected) {
+                assertTrue(format.name(), in.closed);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void damagedGzipFile_isRejected() throws IOException {
+        File file = File.createTempFile("history", ".gz");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(new byte[] {0x1F, (byte) 0x8B, 0, 0});
+            }
+            HistoryTransfer.openInput(file).close();
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+}
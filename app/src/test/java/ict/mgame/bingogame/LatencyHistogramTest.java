@@ -0,0 +1,42 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverValuesContiguously() {
+        long expectedLow = 0;
+        for (int bucket = 0; bucket < 200; bucket++) {
+            long high = LatencyHistogram.upperBound(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(expectedLow));
+            assertEquals(bucket, LatencyHistogram.bucketOf(high));
+            expectedLow = high + 1;
+        }
+        assertEquals(487, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(487));
+    }
+
+    @Test
+    public void percentiles_stayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(v * 1000);  // 1us .. 1ms
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        long p50 = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
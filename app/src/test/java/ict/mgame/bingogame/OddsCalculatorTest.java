@@ -0,0 +1,86 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for OddsCalculator.
+ */
+public class OddsCalculatorTest {
+
+    // Exact probability by trying every set of calls drawn from the remaining numbers
+    private static double bruteForce(int marks, int remaining, int calls) {
+        // Give the unmarked cells the remaining numbers 0, 1, ...; the others are off the card
+        int[] cellOfNumber = new int[remaining];
+        int unmarked = 0;
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            if ((marks & (1 << cell)) == 0) cellOfNumber[unmarked++] = cell;
+        }
+        int wins = 0;
+        int total = 0;
+        for (int called = 0; called < 1 << remaining; called++) {
+            if (Integer.bitCount(called) != calls) continue;
+            total++;
+            int after = marks;
+            for (int n = 0; n < unmarked; n++) {
+                if ((called & (1 << n)) != 0) after |= 1 << cellOfNumber[n];
+            }
+            for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+                if ((after & BingoCard.lineMask(line)) == BingoCard.lineMask(line)) {
+                    wins++;
+                    break;
+                }
+            }
+        }
+        return (double) wins / total;
+    }
+
+    @Test
+    public void probability_matchesBruteForce() {
+        OddsCalculator odds = new OddsCalculator();
+        SplitMixRng rng = new SplitMixRng(21);
+        int remaining = 16;
+        int checked = 0;
+        while (checked < 30) {
+            int marks = 1 << BingoCard.FREE_CELL;
+            for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+                if (rng.nextInt(10) < 6) marks |= 1 << cell;
+            }
+            if (BingoCard.CELLS - Integer.bitCount(marks) > remaining) continue;
+            for (int calls = 0; calls <= remaining; calls += 3) {
+                assertEquals(bruteForce(marks, remaining, calls), odds.probability(marks, remaining, calls), 1e-12);
+            }
+            checked++;
+        }
+    }
+
+    @Test
+    public void curveAndBatch_agreeWithSingleQueries() {
+        OddsCalculator odds = new OddsCalculator();
+        BingoRound round = BingoRound.create(8);
+        BingoCard card = round.getCard();
+        DrawDeck deck = round.getDeck();
+        assertEquals(0.0, odds.probability(card.getMarks(), deck.remaining(), 3), 0.0);
+
+        int[] marks = new int[40];
+        while (!card.hasBingo()) {
+            double[] curve = odds.curve(card.getMarks(), deck.remaining(), GameEngine.ODDS_CALLS);
+            for (int calls = 1; calls < curve.length; calls++) {
+                assertTrue(curve[calls] >= curve[calls - 1]);
+                assertEquals(odds.probability(card.getMarks(), deck.remaining(), calls), curve[calls], 0.0);
+            }
+            // Every remaining number called: the card must win
+            assertEquals(1.0, odds.probability(card.getMarks(), deck.remaining(), deck.remaining()), 1e-9);
+            marks[deck.drawnCount() % marks.length] = card.getMarks();
+            card.mark(deck.draw());
+        }
+        assertEquals(1.0, odds.probability(card.getMarks(), deck.remaining(), 0), 0.0);
+
+        double[] out = new double[marks.length];
+        odds.probabilities(marks, 50, 7, out);
+        for (int i = 0; i < marks.length; i++) {
+            assertEquals(new OddsCalculator().probability(marks[i], 50, 7), out[i], 0.0);
+        }
+    }
+}
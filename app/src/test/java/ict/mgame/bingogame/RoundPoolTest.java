@@ -0,0 +1,73 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for RoundPool.
+ */
+public class RoundPoolTest {
+
+    // Waits until the pool holds at least the given number of rounds
+    private static void awaitSize(RoundPool pool, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(pool.size() >= size);
+    }
+
+    @Test
+    public void pool_fillsToCapacityAndRefillsAfterPolls() throws InterruptedException {
+        RoundPool pool = new RoundPool(4, new SplitMixRng(9));
+        assertNull(pool.poll());  // Not started: a miss, not a wait
+        pool.start();
+        awaitSize(pool, 4);
+
+        Set<Long> seeds = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            BingoRound round = pool.poll();
+            if (round == null) {
+                awaitSize(pool, 1);
+                round = pool.poll();
+            }
+            assertEquals(0, round.getDeck().drawnCount());
+            assertFalse(round.getCard().hasBingo());
+            assertTrue(seeds.add(round.getSeed()));
+        }
+        awaitSize(pool, 4);
+        assertEquals(4, pool.size());
+        pool.shutdown();
+    }
+
+    @Test
+    public void engine_takesRoundsFromThePool() throws InterruptedException {
+        RoundPool pool = new RoundPool(2, new SplitMixRng(5));
+        pool.start();
+        awaitSize(pool, 2);
+        pool.shutdown();
+
+        // The first two rounds come from the pool's seeds, in order
+        SplitMixRng poolSeeds = new SplitMixRng(5);
+        GameEngine engine = new GameEngine(new SplitMixRng(6), pool, new GameEngine.Listener() {
+            @Override
+            public void onSnapshot(GameSnapshot snapshot) {
+            }
+
+            @Override
+            public void onBingo(GameSnapshot snapshot) {
+            }
+        }, null);
+        assertEquals(BingoRound.newSeed(poolSeeds), engine.getSnapshot().getSeed());
+        engine.start();
+        engine.newGame();
+        engine.newGame();  // Pool is empty and stopped: dealt by the engine
+        engine.shutdown();
+        assertEquals(3, engine.getSnapshot().getRound());
+        assertEquals(0, pool.size());
+    }
+}
@@ -0,0 +1,46 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for seed-based round replay and verification.
+ */
+public class RoundVerifierTest {
+
+    @Test
+    public void replay_rebuildsSameCardAndDrawOrder() {
+        BingoRound first = BingoRound.create(12345L);
+        BingoRound second = BingoRound.create(12345L);
+        for (int cell = 0; cell < BingoCard.CELLS; cell++) {
+            assertEquals(first.getCard().getNumber(cell), second.getCard().getNumber(cell));
+        }
+        for (int i = 0; i < BingoCard.MAX_NUMBER; i++) {
+            assertEquals(first.getDeck().peek(i), second.getDeck().peek(i));
+        }
+    }
+
+    @Test
+    public void verifyAll_flagsTamperedAndUnseededRounds() {
+        BingoRng seedRng = new SplitMixRng(99);
+        List<GameInfo> stored = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            BingoRound round = BingoRound.create(BingoRound.newSeed(seedRng));
+            round.playToBingo();
+            stored.add(new GameInfo("Tommy", i + 1, round.getCard().getWinningNumbers(), i, round.getSeed()));
+        }
+        GameInfo tampered = stored.get(10);
+        tampered.setWinningNumbers("1,16,FREE,46,61");
+        stored.add(new GameInfo("Tommy", 0, "1,16,FREE,46,61", 0));
+
+        RoundVerifier.Report report = RoundVerifier.verifyAll(stored);
+        assertEquals(999, report.getVerified());
+        assertEquals(1, report.getUnseeded());
+        assertEquals(1, report.getMismatches().size());
+        assertSame(tampered, report.getMismatches().get(0));
+    }
+}
@@ -0,0 +1,114 @@
+package ict.mgame.bingogame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for win pattern compilation and PatternSet evaluation.
+ */
+public class WinPatternTest {
+
+    @Test
+    public void parse_compilesPlacements() {
+        assertEquals(BingoCard.LINE_COUNT, WinPattern.LINE.getMaskCount());
+        for (int line = 0; line < BingoCard.LINE_COUNT; line++) {
+            assertEquals(BingoCard.lineMask(line), WinPattern.LINE.getMask(line));
+        }
+        assertEquals(4, WinPattern.POSTAGE_STAMP.getMaskCount());
+        assertEquals(16, WinPattern.parse("Any 2x2", "anywhere:XX/XX").getMaskCount());
+        assertEquals(BingoCard.ALL_CELLS, WinPattern.BLACKOUT.getMask(0));
+        assertEquals(16, Integer.bitCount(WinPattern.PICTURE_FRAME.getMask(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsUnknownPlacement() {
+        WinPattern.parse("Bad", "sideways:XX");
+    }
+
+    @Test
+    public void evaluate_reportsPatternsCompletedOnThisDraw() {
+        PatternSet set = new PatternSet(WinPattern.LINE, WinPattern.FOUR_CORNERS, WinPattern.POSTAGE_STAMP,
+                WinPattern.X, WinPattern.BLACKOUT);
+        int marks = 1 << BingoCard.FREE_CELL;
+        long completed = 0;
+        // Top-left 2x2 block, then the other three corners
+        int[] cells = {0, 1, 5, 6, 4, 20, 24};
+        long[] expected = {0, 0, 0, 1L << 2, 0, 0, 1L << 1};
+        for (int i = 0; i < cells.length; i++) {
+            marks |= 1 << cells[i];
+            long fresh = set.evaluate(marks, cells[i], completed);
+            assertEquals(expected[i], fresh);
+            completed |= fresh;
+        }
+        assertEquals(completed, set.evaluateAll(marks));
+    }
+
+    @Test
+    public void hall_reportsEachCardsPatternsOnce() {
+        PatternSet set = new PatternSet(WinPattern.FOUR_CORNERS, WinPattern.X, WinPattern.POSTAGE_STAMP,
+                WinPattern.PICTURE_FRAME, WinPattern.BLACKOUT);
+        BingoHall hall = new BingoHall(set);
+        SplitMixRng rng = new SplitMixRng(17);
+        hall.addRandomCards(50, rng);
+        for (int game = 0; game < 3; game++) {
+            hall.reset();
+            BingoCard[] copies = new BingoCard[hall.getCardCount()];
+            long[] reported = new long[copies.length];
+            for (int id = 0; id < copies.length; id++) {
+                copies[id] = BingoCard.unpack(hall.getCard(id).packedLow(), hall.getCard(id).packedHigh());
+            }
+            DrawDeck deck = new DrawDeck();
+            deck.shuffle(rng);
+            while (!deck.isEmpty()) {
+                int number = deck.draw();
+                hall.draw(number);
+                for (int i = 0; i < hall.getPatternCardCount(); i++) {
+                    int id = hall.getPatternCard(i);
+                    assertEquals(0, reported[id] & hall.getPatternBits(i));
+                    reported[id] |= hall.getPatternBits(i);
+                }
+                for (int id = 0; id < copies.length; id++) {
+                    copies[id].mark(number);
+                    assertEquals(set.evaluateAll(copies[id].getMarks()), hall.getCompletedPatterns(id));
+                    assertEquals(reported[id], hall.getCompletedPatterns(id));
+                }
+            }
+            // Blackout completes everything
+            assertEquals((1L << set.size()) - 1, hall.getCompletedPatterns(0));
+        }
+    }
+
+    @Test
+    public void engine_reportsPatternsInSnapshots() {
+        PatternSet set = new PatternSet(WinPattern.FOUR_CORNERS, WinPattern.BLACKOUT);
+        final List<GameSnapshot> snapshots = new ArrayList<>();
+        GameEngine engine = new GameEngine(new SplitMixRng(5), null, set, new GameEngine.Listener() {
+            @Override
+            public void onSnapshot(GameSnapshot snapshot) {
+                snapshots.add(snapshot);
+            }
+
+            @Override
+            public void onBingo(GameSnapshot snapshot) {
+            }
+        }, null);
+        engine.start();
+        for (int i = 0; i < BingoCard.MAX_NUMBER; i++) {
+            engine.draw();
+        }
+        engine.shutdown();
+
+        long seen = 0;
+        for (GameSnapshot snapshot : snapshots) {
+            assertEquals(0, seen & snapshot.getNewPatterns());
+            seen |= snapshot.getNewPatterns();
+            assertEquals(seen, snapshot.getCompletedPatterns());
+            assertEquals(set.evaluateAll(snapshot.getMarks()), snapshot.getCompletedPatterns());
+        }
+        assertEquals(3L, seen);
+    }
+}
@@ -0,0 +1,45 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// :app is an Android application module and cannot be a JVM dependency, so the
+// Android-free game classes are compiled straight from its source tree.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "ict/mgame/bingogame/BingoCard.java",
+                "ict/mgame/bingogame/BingoHall.java",
+                "ict/mgame/bingogame/BingoRng.java",
+                "ict/mgame/bingogame/BingoRound.java",
+                "ict/mgame/bingogame/BingoSimulator.java",
+                "ict/mgame/bingogame/DrawDeck.java",
+                "ict/mgame/bingogame/FinishingCallSolver.java",
+                "ict/mgame/bingogame/GameInfo.java",
+                "ict/mgame/bingogame/PatternSet.java",
+                "ict/mgame/bingogame/RoundVerifier.java",
+                "ict/mgame/bingogame/SplitMixRng.java",
+                "ict/mgame/bingogame/WinPattern.java"
+            )
+        }
+    }
+}
+
+// Run with: ./gradlew :benchmark:jmh
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("us")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,40 @@
+package ict.mgame.bingogame.benchmark;
+
+import ict.mgame.bingogame.BingoCard;
+import ict.mgame.bingogame.BingoRng;
+import ict.mgame.bingogame.SplitMixRng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks card generation: the original per-column shuffle and card build
+ * against BingoCard.generate().
+ */
+@State(Scope.Thread)
+public class CardGenerationBenchmark {
+
+    // Legacy game reused across invocations, as MainActivity reused its arrays
+    private final LegacyGame legacy = new LegacyGame();
+    // Random source for the engine
+    private final BingoRng rng = new SplitMixRng(1);
+
+    @Benchmark
+    public List<Integer> legacyGenerateUniqueNums() {
+        return LegacyGame.generateUniqueNums(1, 15, 5);
+    }
+
+    @Benchmark
+    public int[][] legacyGenerateNewCard() {
+        legacy.generateNewCard();
+        return legacy.cardNumbers;
+    }
+
+    @Benchmark
+    public BingoCard engineGenerate() {
+        return BingoCard.generate(rng);
+    }
+}
@@ -0,0 +1,74 @@
+package ict.mgame.bingogame.benchmark;
+
+import ict.mgame.bingogame.BingoCard;
+import ict.mgame.bingogame.BingoRng;
+import ict.mgame.bingogame.DrawDeck;
+import ict.mgame.bingogame.SplitMixRng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Benchmarks drawing and marking a full deck of 75 numbers, reported per draw.
+ */
+@State(Scope.Thread)
+public class DrawBenchmark {
+
+    // Legacy game: boxed ArrayList deck, new Random per draw, 25-cell scan per draw
+    private final LegacyGame legacy = new LegacyGame();
+    // Engine card and a pre-shuffled draw order
+    private BingoCard card;
+    private final int[] order = new int[BingoCard.MAX_NUMBER];
+    // Engine deck and its random source
+    private final DrawDeck deck = new DrawDeck();
+    private final BingoRng rng = new SplitMixRng(1);
+
+    @Setup
+    public void setUp() {
+        legacy.generateNewCard();
+        card = BingoCard.generate(rng);
+        deck.shuffle(rng);
+        for (int i = 0; i < order.length; i++) {
+            order[i] = deck.draw();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BingoCard.MAX_NUMBER)
+    public int legacyDrawFullDeck() {
+        legacy.resetMarks();
+        legacy.resetAvailableNumbers();
+        int sum = 0;
+        while (!legacy.availableNumbers.isEmpty()) {
+            sum += legacy.drawNumber();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BingoCard.MAX_NUMBER)
+    public int engineMarkFullDeck() {
+        card.resetMarks();
+        int sum = 0;
+        for (int number : order) {
+            sum += card.mark(number);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BingoCard.MAX_NUMBER)
+    public int engineShuffleAndDrawFullDeck() {
+        card.resetMarks();
+        deck.shuffle(rng);
+        int sum = 0;
+        while (!deck.isEmpty()) {
+            sum += card.mark(deck.draw());
+        }
+        return sum;
+    }
+}
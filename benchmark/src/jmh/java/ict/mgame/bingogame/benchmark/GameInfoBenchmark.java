@@ -0,0 +1,85 @@
+package ict.mgame.bingogame.benchmark;
+
+import ict.mgame.bingogame.BingoCard;
+import ict.mgame.bingogame.BingoRound;
+import ict.mgame.bingogame.GameInfo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.TimeZone;
+
+/**
+ * Benchmarks GameInfo construction, its binding to the insert statement, and the lazy
+ * winning-number decode.
+ * DBHelper.insertGameInfo() binds a precompiled SQLiteStatement, which keeps its arguments
+ * in an Object[] (longs boxed, the card as two of them), then adds one win_number row per
+ * winning number; both are reproduced here with an array of the same shape.
+ */
+@State(Scope.Thread)
+public class GameInfoBenchmark {
+
+    // Winning card of a seeded round, as stored with every Bingo
+    private long seed;
+    private long cardLow, cardHigh;
+    private int winMask, marksMask;
+    // Round counter, so each row differs
+    private int round;
+    // Arguments of the gameinfo insert, in column order
+    private final Object[] bindArgs = new Object[10];
+    // Winning numbers for the win_number rows
+    private final int[] winNumbers = new int[BingoCard.SIZE];
+
+    @Setup
+    public void setUp() {
+        BingoRound bingoRound = BingoRound.create(42);
+        bingoRound.playToBingo();
+        BingoCard card = bingoRound.getCard();
+        seed = bingoRound.getSeed();
+        cardLow = card.packedLow();
+        cardHigh = card.packedHigh();
+        winMask = BingoCard.lineMask(card.getWinningLine());
+        marksMask = card.getMarks();
+    }
+
+    // Builds the row MainActivity stores on a Bingo: packed card, no winning number text
+    private GameInfo newRow() {
+        GameInfo gameInfo = new GameInfo("Tommy", ++round, null, 1700000000000L + round, seed);
+        gameInfo.setCard(cardLow, cardHigh, winMask, marksMask);
+        return gameInfo;
+    }
+
+    @Benchmark
+    public GameInfo construct() {
+        return newRow();
+    }
+
+    @Benchmark
+    public void constructAndBind(Blackhole blackhole) {
+        GameInfo gameInfo = newRow();
+        bindArgs[0] = gameInfo.getUsername();
+        bindArgs[1] = (long) gameInfo.getRound();
+        bindArgs[2] = null;  // Winning number text: derived from the card when read
+        bindArgs[3] = gameInfo.getTimestamp();
+        bindArgs[4] = gameInfo.getSeed();
+        bindArgs[5] = gameInfo.getCardLow();
+        bindArgs[6] = gameInfo.getCardHigh();
+        bindArgs[7] = (long) gameInfo.getWinMask();
+        bindArgs[8] = (long) gameInfo.getMarksMask();
+        bindArgs[9] = (long) TimeZone.getDefault().getOffset(gameInfo.getTimestamp());
+        blackhole.consume(bindArgs);
+        int count = gameInfo.getWinningNumbers(winNumbers);
+        for (int i = 0; i < count; i++) {
+            blackhole.consume((long) winNumbers[i]);
+        }
+    }
+
+    @Benchmark
+    public String decodeWinningNumbers() {
+        // A row as read back from the database: the text is formatted on first use
+        return newRow().getWinningNumbers();
+    }
+}
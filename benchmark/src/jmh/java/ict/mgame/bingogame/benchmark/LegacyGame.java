@@ -0,0 +1,222 @@
+package ict.mgame.bingogame.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * LegacyGame class is a verbatim copy of the original MainActivity game logic
+ * (int[5][5] card, boolean[5][5] marks, boxed ArrayList deck) with the Android views removed.
+ * It is kept as the baseline that faster engine code is measured against.
+ */
+final class LegacyGame {
+
+    // 2D array storing the numbers on the Bingo card
+    final int[][] cardNumbers = new int[5][5];
+    // 2D boolean array tracking which cells are marked (hit by drawn numbers)
+    final boolean[][] marked = new boolean[5][5];
+    // List of available numbers to draw (1-75, shuffled)
+    final List<Integer> availableNumbers = new ArrayList<>();
+
+    /**
+     * Generates a new card exactly as MainActivity.generateNewCard() did, minus the views.
+     */
+    void generateNewCard() {
+        List<Integer> bNums = generateUniqueNums(1, 15, 5);
+        List<Integer> iNums = generateUniqueNums(16, 30, 5);
+        List<Integer> nNums = generateUniqueNums(31, 45, 4);  // 4 because center is FREE
+        List<Integer> gNums = generateUniqueNums(46, 60, 5);
+        List<Integer> oNums = generateUniqueNums(61, 75, 5);
+
+        for (int rowIdx = 0; rowIdx < 5; rowIdx++) {
+            cardNumbers[rowIdx][0] = bNums.get(rowIdx);
+            cardNumbers[rowIdx][1] = iNums.get(rowIdx);
+            if (rowIdx == 2) {
+                cardNumbers[rowIdx][2] = 0;  // FREE
+            } else {
+                cardNumbers[rowIdx][2] = nNums.get(rowIdx < 2 ? rowIdx : rowIdx - 1);
+            }
+            cardNumbers[rowIdx][3] = gNums.get(rowIdx);
+            cardNumbers[rowIdx][4] = oNums.get(rowIdx);
+        }
+
+        resetMarks();
+        resetAvailableNumbers();
+    }
+
+    /**
+     * Generates a list of unique shuffled numbers in a given range.
+     */
+    static List<Integer> generateUniqueNums(int min, int max, int count) {
+        List<Integer> nums = new ArrayList<>();
+        for (int i = min; i <= max; i++) {
+            nums.add(i);
+        }
+        Collections.shuffle(nums);
+        return nums.subList(0, count);
+    }
+
+    /**
+     * Resets all marks on the card except the FREE center.
+     */
+    void resetMarks() {
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                marked[i][j] = (i == 2 && j == 2);  // Only FREE is marked
+            }
+        }
+    }
+
+    /**
+     * Resets the list of available numbers to 1-75, shuffled.
+     */
+    void resetAvailableNumbers() {
+        availableNumbers.clear();
+        for (int i = 1; i <= 75; i++) {
+            availableNumbers.add(i);
+        }
+        Collections.shuffle(availableNumbers);
+    }
+
+    /**
+     * Draws a random number and marks it, as MainActivity.drawNumber() did.
+     * @return The drawn number
+     */
+    int drawNumber() {
+        int drawnIndex = new Random().nextInt(availableNumbers.size());
+        int drawn = availableNumbers.remove(drawnIndex);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                if (cardNumbers[i][j] == drawn) {
+                    marked[i][j] = true;
+                }
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Retrieves the numbers of the first winning line as a comma-separated string.
+     */
+    String getWinningNumbers() {
+        StringBuilder sb = new StringBuilder();
+
+        // Check rows
+        for (int i = 0; i < 5; i++) {
+            if (isLineMarked(marked[i])) {
+                for (int j = 0; j < 5; j++) {
+                    if (i == 2 && j == 2) {
+                        sb.append("FREE");
+                    } else {
+                        sb.append(cardNumbers[i][j]);
+                    }
+                    if (j < 4) sb.append(",");
+                }
+                return sb.toString();
+            }
+        }
+
+        // Check columns
+        for (int j = 0; j < 5; j++) {
+            boolean colMarked = true;
+            for (int i = 0; i < 5; i++) {
+                if (!marked[i][j]) {
+                    colMarked = false;
+                    break;
+                }
+            }
+            if (colMarked) {
+                for (int i = 0; i < 5; i++) {
+                    if (i == 2 && j == 2) {
+                        sb.append("FREE");
+                    } else {
+                        sb.append(cardNumbers[i][j]);
+                    }
+                    if (i < 4) sb.append(",");
+                }
+                return sb.toString();
+            }
+        }
+
+        // Check main diagonal
+        boolean diag1 = true;
+        for (int i = 0; i < 5; i++) {
+            if (!marked[i][i]) diag1 = false;
+        }
+        if (diag1) {
+            for (int i = 0; i < 5; i++) {
+                if (i == 2) {
+                    sb.append("FREE");
+                } else {
+                    sb.append(cardNumbers[i][i]);
+                }
+                if (i < 4) sb.append(",");
+            }
+            return sb.toString();
+        }
+
+        // Check anti-diagonal
+        boolean diag2 = true;
+        for (int i = 0; i < 5; i++) {
+            if (!marked[i][4 - i]) diag2 = false;
+        }
+        if (diag2) {
+            for (int i = 0; i < 5; i++) {
+                if (i == 2 && (4 - i) == 2) {
+                    sb.append("FREE");
+                } else {
+                    sb.append(cardNumbers[i][4 - i]);
+                }
+                if (i < 4) sb.append(",");
+            }
+            return sb.toString();
+        }
+
+        return "";
+    }
+
+    /**
+     * Checks if there is a Bingo (full row, column, or diagonal).
+     */
+    boolean hasBingo() {
+        // Check rows
+        for (int i = 0; i < 5; i++) {
+            if (isLineMarked(marked[i])) return true;
+        }
+
+        // Check columns
+        for (int j = 0; j < 5; j++) {
+            boolean colMarked = true;
+            for (int i = 0; i < 5; i++) {
+                if (!marked[i][j]) {
+                    colMarked = false;
+                    break;
+                }
+            }
+            if (colMarked) return true;
+        }
+
+        // Check main diagonal
+        boolean diag1 = true;
+        for (int i = 0; i < 5; i++) {
+            if (!marked[i][i]) diag1 = false;
+        }
+        if (diag1) return true;
+
+        // Check anti-diagonal
+        boolean diag2 = true;
+        for (int i = 0; i < 5; i++) {
+            if (!marked[i][4 - i]) diag2 = false;
+        }
+        return diag2;
+    }
+
+    // Checks if a single line is fully marked
+    private static boolean isLineMarked(boolean[] line) {
+        for (boolean b : line) {
+            if (!b) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package ict.mgame.bingogame.benchmark;
+
+import ict.mgame.bingogame.BingoRound;
+import ict.mgame.bingogame.GameInfo;
+import ict.mgame.bingogame.RoundVerifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks rebuilding a round from its seed and verifying a stored round.
+ */
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    private long seed = 1;
+    private GameInfo stored;
+
+    @Setup
+    public void setUp() {
+        BingoRound round = BingoRound.replay(42L);
+        stored = new GameInfo("Tommy", 1, round.getCard().getWinningNumbers(), 0L, 42L);
+    }
+
+    @Benchmark
+    public BingoRound replay() {
+        return BingoRound.replay(seed++);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return RoundVerifier.verify(stored);
+    }
+}
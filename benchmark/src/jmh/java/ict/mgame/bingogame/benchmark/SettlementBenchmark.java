@@ -0,0 +1,62 @@
+package ict.mgame.bingogame.benchmark;
+
+import ict.mgame.bingogame.BingoCard;
+import ict.mgame.bingogame.BingoHall;
+import ict.mgame.bingogame.BingoRng;
+import ict.mgame.bingogame.DrawDeck;
+import ict.mgame.bingogame.FinishingCallSolver;
+import ict.mgame.bingogame.SplitMixRng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks settling a pre-drawn game for a batch of cards: closed-form solver
+ * against stepping a BingoHall through the draws.
+ */
+@State(Scope.Thread)
+public class SettlementBenchmark {
+
+    // Cards in the batch
+    @Param({"100000"})
+    public int cards;
+
+    private final DrawDeck deck = new DrawDeck();
+    private final BingoHall hall = new BingoHall();
+    private long[] packed;
+
+    @Setup
+    public void setUp() {
+        BingoRng rng = new SplitMixRng(1);
+        deck.shuffle(rng);
+        hall.addRandomCards(cards, rng);
+        packed = new long[cards * 2];
+        for (int id = 0; id < cards; id++) {
+            BingoCard card = hall.getCard(id);
+            packed[2 * id] = card.packedLow();
+            packed[2 * id + 1] = card.packedHigh();
+        }
+    }
+
+    @Benchmark
+    public int solverSequential() {
+        return new FinishingCallSolver(deck).solveAll(packed, false).getEarliestCall();
+    }
+
+    @Benchmark
+    public int solverParallel() {
+        return new FinishingCallSolver(deck).solveAll(packed, true).getEarliestCall();
+    }
+
+    @Benchmark
+    public int hallDrawUntilAllWon() {
+        hall.reset();
+        for (int i = 0; i < BingoCard.MAX_NUMBER && hall.getWinnerCount() < cards; i++) {
+            hall.draw(deck.peek(i));
+        }
+        return hall.getWinnerCount();
+    }
+}
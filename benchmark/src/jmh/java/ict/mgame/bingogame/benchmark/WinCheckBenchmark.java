@@ -0,0 +1,68 @@
+package ict.mgame.bingogame.benchmark;
+
+import ict.mgame.bingogame.BingoCard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Benchmarks hasBingo() and getWinningNumbers() on a card after a fixed number of draws.
+ * Fewer draws means no line is complete and every line gets checked.
+ */
+@State(Scope.Thread)
+public class WinCheckBenchmark {
+
+    // Numbers drawn before measuring
+    @Param({"10", "40"})
+    public int draws;
+
+    private final LegacyGame legacy = new LegacyGame();
+    private BingoCard card;
+
+    @Setup
+    public void setUp() {
+        legacy.generateNewCard();
+        int[] cells = new int[BingoCard.CELLS];
+        for (int i = 0; i < BingoCard.SIZE; i++) {
+            for (int j = 0; j < BingoCard.SIZE; j++) {
+                cells[i * BingoCard.SIZE + j] = legacy.cardNumbers[i][j];
+            }
+        }
+        card = new BingoCard(cells);
+        Random random = new Random(1);
+        for (int d = 0; d < draws; d++) {
+            int number = legacy.availableNumbers.remove(random.nextInt(legacy.availableNumbers.size()));
+            for (int i = 0; i < BingoCard.SIZE; i++) {
+                for (int j = 0; j < BingoCard.SIZE; j++) {
+                    if (legacy.cardNumbers[i][j] == number) legacy.marked[i][j] = true;
+                }
+            }
+            card.mark(number);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyHasBingo() {
+        return legacy.hasBingo();
+    }
+
+    @Benchmark
+    public boolean engineHasBingo() {
+        return card.hasBingo();
+    }
+
+    @Benchmark
+    public String legacyGetWinningNumbers() {
+        return legacy.getWinningNumbers();
+    }
+
+    @Benchmark
+    public String engineGetWinningNumbers() {
+        return card.getWinningNumbers();
+    }
+}
@@ -0,0 +1,46 @@
+plugins {
+    java
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// As in :benchmark, the Android-free game classes are compiled straight from :app's source tree.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "ict/mgame/bingogame/BingoCard.java",
+                "ict/mgame/bingogame/BingoHall.java",
+                "ict/mgame/bingogame/BingoRng.java",
+                "ict/mgame/bingogame/DrawDeck.java",
+                "ict/mgame/bingogame/LatencyHistogram.java",
+                "ict/mgame/bingogame/PatternSet.java",
+                "ict/mgame/bingogame/SplitMixRng.java",
+                "ict/mgame/bingogame/WinPattern.java",
+                "ict/mgame/bingogame/server/**"
+            )
+        }
+    }
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Run the server with: ./gradlew :server:run --args="7575"
+application {
+    mainClass.set("ict.mgame.bingogame.server.BingoServer")
+}
+
+// Run a loopback load test with: ./gradlew :server:loadTest --args="200 5 4 20 250"
+tasks.register<JavaExec>("loadTest") {
+    group = "application"
+    description = "Runs an embedded server and a loopback load generator against it."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("ict.mgame.bingogame.server.LoadGenerator")
+}
@@ -0,0 +1,126 @@
+package ict.mgame.bingogame.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * BingoProtocol class defines the binary wire format between BingoServer and its clients.
+ * Every frame is a 2-byte big-endian length (of everything after it), a 1-byte type and a
+ * fixed payload, so a draw reaches each client as a single 21-byte write.
+ *
+ * Client to server:
+ *   JOIN    room:int cards:u16                      join a room with that many new cards
+ * Server to client:
+ *   WELCOME room:int player:int cards:u16 card*12   the player's cards, packed as in BingoCard
+ *   DRAW    room:int round:int call:u8 number:u8 sentNanos:long
+ *   WIN     room:int round:int player:int card:u16 call:u8
+ *   ROUND   room:int round:int                      a new round starts with the same cards
+ * A packed card is the BingoCard low word (8 bytes) and the 32 used bits of the high word.
+ */
+public final class BingoProtocol {
+
+    // Frame types
+    public static final byte JOIN = 1;
+    public static final byte WELCOME = 2;
+    public static final byte DRAW = 3;
+    public static final byte WIN = 4;
+    public static final byte ROUND = 5;
+
+    // Bytes before the payload: length and type
+    public static final int HEADER_BYTES = 3;
+    // Payload sizes of the fixed frames
+    public static final int JOIN_PAYLOAD = 4 + 2;
+    public static final int DRAW_PAYLOAD = 4 + 4 + 1 + 1 + 8;
+    public static final int WIN_PAYLOAD = 4 + 4 + 4 + 2 + 1;
+    public static final int ROUND_PAYLOAD = 4 + 4;
+    // Bytes per card in a WELCOME frame
+    public static final int CARD_BYTES = 12;
+    // Most cards one player may hold (keeps a WELCOME frame under the 64 KB length limit)
+    public static final int MAX_CARDS = 1024;
+
+    /**
+     * Starts a frame: writes the length and type.
+     * @param buffer Destination with room for the whole frame
+     * @param type Frame type
+     * @param payloadBytes Payload size
+     */
+    public static void putHeader(ByteBuffer buffer, byte type, int payloadBytes) {
+        buffer.putShort((short) (payloadBytes + 1));
+        buffer.put(type);
+    }
+
+    /**
+     * Encodes a JOIN frame.
+     * @param room Room id
+     * @param cards Number of cards to play
+     * @return Frame ready to write
+     */
+    public static ByteBuffer join(int room, int cards) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + JOIN_PAYLOAD);
+        putHeader(frame, JOIN, JOIN_PAYLOAD);
+        frame.putInt(room).putShort((short) cards);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Encodes a DRAW frame.
+     * @param room Room id
+     * @param round Round number
+     * @param call 1-based call index within the round
+     * @param number Drawn number
+     * @param sentNanos System.nanoTime() when the frame was built
+     * @return Frame ready to write; shared read-only by every recipient
+     */
+    public static ByteBuffer draw(int room, int round, int call, int number, long sentNanos) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + DRAW_PAYLOAD);
+        putHeader(frame, DRAW, DRAW_PAYLOAD);
+        frame.putInt(room).putInt(round).put((byte) call).put((byte) number).putLong(sentNanos);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+
+    /**
+     * Encodes a WIN frame.
+     * @param room Room id
+     * @param round Round number
+     * @param player Winning player
+     * @param card Index of the winning card among the player's cards
+     * @param call Call on which the card won
+     * @return Frame ready to write
+     */
+    public static ByteBuffer win(int room, int round, int player, int card, int call) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + WIN_PAYLOAD);
+        putHeader(frame, WIN, WIN_PAYLOAD);
+        frame.putInt(room).putInt(round).putInt(player).putShort((short) card).put((byte) call);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+
+    /**
+     * Encodes a ROUND frame.
+     * @param room Room id
+     * @param round New round number
+     * @return Frame ready to write
+     */
+    public static ByteBuffer round(int room, int round) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + ROUND_PAYLOAD);
+        putHeader(frame, ROUND, ROUND_PAYLOAD);
+        frame.putInt(room).putInt(round);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the size of the next complete frame in a buffer being read.
+     * @param buffer Buffer in read mode positioned at a frame start
+     * @return Whole frame size including the length field, or -1 if it is not all there yet
+     */
+    public static int completeFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < 2) return -1;
+        int size = 2 + (buffer.getShort(buffer.position()) & 0xFFFF);
+        return buffer.remaining() >= size ? size : -1;
+    }
+
+    private BingoProtocol() {
+    }
+}
@@ -0,0 +1,175 @@
+package ict.mgame.bingogame.server;
+
+import ict.mgame.bingogame.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BingoServer class hosts any number of bingo rooms for remote players, with no Android code.
+ * A small fixed pool of EventLoop threads does all the work: room r lives on loop r % loops,
+ * and each loop multiplexes its sockets with one NIO selector and runs its rooms' draws from
+ * a timer queue, so thousands of rooms need no thread each and no locks.
+ * Loop 0 also accepts connections. Frames are described in BingoProtocol.
+ */
+public final class BingoServer {
+
+    // Defaults for main()
+    public static final int DEFAULT_PORT = 7575;
+    public static final long DEFAULT_INTERVAL_MS = 3000;
+    // Pending connections the OS may queue before accept()
+    private static final int ACCEPT_BACKLOG = 4096;
+
+    // Time between draws in every room
+    final long drawIntervalNanos;
+    // Server-wide totals, updated by every loop
+    final AtomicInteger connections = new AtomicInteger();
+    final AtomicInteger activeRooms = new AtomicInteger();
+    final AtomicLong draws = new AtomicLong();
+    // How late each room timer fired: shows whether the loops keep up
+    final LatencyHistogram drawLag = new LatencyHistogram("draw_lag");
+    // Event loops; loop 0 also accepts
+    private final EventLoop[] loops;
+    // Listening socket
+    private final ServerSocketChannel acceptor;
+    // Base seed for the rooms' random sources
+    private final long seed;
+
+    /**
+     * Constructor for BingoServer; binds the port but does not start serving.
+     * @param address Address to listen on; port 0 picks a free port
+     * @param loopCount Number of event-loop threads
+     * @param drawIntervalMs Milliseconds between draws in each room
+     * @throws IOException if the port cannot be bound
+     */
+    public BingoServer(InetSocketAddress address, int loopCount, long drawIntervalMs) throws IOException {
+        if (loopCount < 1) throw new IllegalArgumentException("loopCount " + loopCount);
+        this.drawIntervalNanos = drawIntervalMs * 1_000_000;
+        this.seed = System.nanoTime();
+        this.loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop(this, i);
+        }
+        acceptor = ServerSocketChannel.open();
+        acceptor.bind(address, ACCEPT_BACKLOG);
+        acceptor.configureBlocking(false);
+        acceptor.register(loops[0].selector, SelectionKey.OP_ACCEPT, new EventLoop.Handler() {
+            @Override
+            public void handle(SelectionKey key) throws IOException {
+                accept();
+            }
+        });
+    }
+
+    /**
+     * Starts the event-loop threads.
+     */
+    public void start() {
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    // Accepts every pending connection onto loop 0, which reads its JOIN
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = acceptor.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            connections.incrementAndGet();
+            new Connection(this, channel).register(loops[0]);
+        }
+    }
+
+    /**
+     * Returns the loop that owns a room.
+     * @param roomId Room id
+     * @return Owning loop
+     */
+    EventLoop loopFor(int roomId) {
+        return loops[Math.floorMod(roomId, loops.length)];
+    }
+
+    /**
+     * Stops accepting, closes every connection and waits for the loops to finish.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void stop() throws InterruptedException {
+        try {
+            acceptor.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+
+    // Getter for the bound port
+    public int getPort() {
+        return acceptor.socket().getLocalPort();
+    }
+
+    // Getter for the base seed
+    long getSeed() {
+        return seed;
+    }
+
+    // Getter for the number of event loops
+    public int getLoopCount() {
+        return loops.length;
+    }
+
+    // Getter for the number of open connections
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    // Getter for the number of rooms with players
+    public int getActiveRoomCount() {
+        return activeRooms.get();
+    }
+
+    // Getter for the total number of draws so far
+    public long getDrawCount() {
+        return draws.get();
+    }
+
+    // Getter for the timer lateness histogram
+    public LatencyHistogram getDrawLag() {
+        return drawLag;
+    }
+
+    /**
+     * Runs a server until killed, printing a status line every 10 seconds.
+     * @param args [port] [loops] [drawIntervalMs] [bindAddress]; binds loopback by default
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loopCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long intervalMs = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_INTERVAL_MS;
+        InetAddress host = args.length > 3 ? InetAddress.getByName(args[3]) : InetAddress.getLoopbackAddress();
+
+        BingoServer server = new BingoServer(new InetSocketAddress(host, port), loopCount, intervalMs);
+        server.start();
+        System.out.printf(Locale.ROOT, "Listening on %s:%d with %d loops, draw every %d ms%n",
+                host.getHostAddress(), server.getPort(), loopCount, intervalMs);
+        long lastDraws = 0;
+        while (true) {
+            Thread.sleep(10_000);
+            long draws = server.getDrawCount();
+            System.out.printf(Locale.ROOT, "connections=%d rooms=%d draws/s=%.1f %s%n",
+                    server.getConnectionCount(), server.getActiveRoomCount(),
+                    (draws - lastDraws) / 10.0, server.getDrawLag());
+            lastDraws = draws;
+        }
+    }
+}
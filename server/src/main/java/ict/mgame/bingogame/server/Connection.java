@@ -0,0 +1,192 @@
+package ict.mgame.bingogame.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Connection class is one client socket, driven by the EventLoop that owns it.
+ * New connections are read on the accepting loop; the JOIN frame then moves the socket to
+ * the loop that owns the requested room, so every later write happens on that room's thread.
+ * Outbound frames are shared buffers queued as duplicates; when the socket cannot keep up,
+ * the queue waits for OP_WRITE, and a client too far behind is disconnected.
+ */
+final class Connection implements EventLoop.Handler {
+
+    // Most frames queued for one client before it is dropped as too slow
+    private static final int MAX_QUEUED = 4096;
+    // Read buffer size; clients only ever send JOIN
+    private static final int READ_BUFFER = 64;
+
+    // Socket
+    private final SocketChannel channel;
+    // Server, for the connection count
+    private final BingoServer server;
+    // Loop currently owning the socket, and its key there
+    private EventLoop loop;
+    private SelectionKey key;
+    // Partly received frames
+    private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+    // Frames waiting to be written, oldest first
+    private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+    // Whether OP_WRITE is currently requested
+    private boolean writeInterest;
+    // Room and seat after JOIN
+    private Room room;
+    private Room.Player player;
+    // Set once the connection is closed
+    private boolean closed;
+    // Set once a JOIN has been accepted
+    private boolean joined;
+
+    Connection(BingoServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+    }
+
+    /**
+     * Registers the socket with a loop; must run on that loop's thread.
+     * @param loop New owner
+     */
+    void register(EventLoop loop) throws IOException {
+        this.loop = loop;
+        int ops = SelectionKey.OP_READ;
+        if (!out.isEmpty()) ops |= SelectionKey.OP_WRITE;
+        writeInterest = !out.isEmpty();
+        key = channel.register(loop.selector, ops, this);
+    }
+
+    @Override
+    public void handle(SelectionKey key) throws IOException {
+        if (key.isReadable()) read();
+        if (key.isValid() && key.isWritable()) flush();
+    }
+
+    // Reads and processes every complete frame
+    private void read() throws IOException {
+        if (channel.read(in) < 0) {
+            close();
+            return;
+        }
+        in.flip();
+        int size;
+        while (!closed && (size = BingoProtocol.completeFrame(in)) > 0) {
+            int start = in.position();
+            byte type = in.get(start + 2);
+            if (type != BingoProtocol.JOIN || size != BingoProtocol.HEADER_BYTES + BingoProtocol.JOIN_PAYLOAD || joined) {
+                throw new IOException("Unexpected frame type " + type);
+            }
+            int roomId = in.getInt(start + 3);
+            int cards = in.getShort(start + 7) & 0xFFFF;
+            if (cards < 1 || cards > BingoProtocol.MAX_CARDS) {
+                throw new IOException("Bad card count " + cards);
+            }
+            in.position(start + size);
+            joined = true;
+            EventLoop owner = server.loopFor(roomId);
+            if (owner != loop) {
+                // Done with the buffer before another loop may touch the connection
+                in.compact();
+                moveTo(owner, roomId, cards);
+                return;
+            }
+            takeSeat(loop.room(roomId), cards);
+        }
+        if (closed) return;
+        in.compact();
+        if (!in.hasRemaining()) throw new IOException("Frame too large");
+    }
+
+    /**
+     * Hands the socket to the loop owning a room, which registers it and takes the seat on
+     * its own thread. The caller must not touch the connection afterwards.
+     * @param owner Loop owning the room
+     * @param roomId Room to join
+     * @param cards Number of cards
+     */
+    private void moveTo(final EventLoop owner, final int roomId, final int cards) {
+        // Leave this selector
+        key.cancel();
+        key = null;
+        owner.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    register(owner);
+                    takeSeat(owner.room(roomId), cards);
+                } catch (IOException e) {
+                    close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Joins a room on its own loop. The WELCOME write inside Room.join() may already close the
+     * connection (a client that reset right after JOIN), so room and seat are recorded together
+     * afterwards and a seat taken by a closed connection is given up at once.
+     * @param target Room, owned by the current loop
+     * @param cards Number of cards
+     */
+    private void takeSeat(Room target, int cards) {
+        Room.Player seat = target.join(this, cards);
+        room = target;
+        player = seat;
+        if (closed) target.leave(seat);
+    }
+
+    /**
+     * Queues a frame and writes as much as the socket takes without blocking.
+     * @param frame Frame in read mode; shared frames are never modified
+     */
+    void send(ByteBuffer frame) {
+        if (closed) return;
+        if (out.size() >= MAX_QUEUED) {
+            // Too slow to keep up with the draws
+            close();
+            return;
+        }
+        out.add(frame.duplicate());
+        if (out.size() == 1 && !writeInterest) {
+            try {
+                flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+    }
+
+    // Writes queued frames until the queue is empty or the socket is full
+    private void flush() throws IOException {
+        ByteBuffer head;
+        while ((head = out.peek()) != null) {
+            channel.write(head);
+            if (head.hasRemaining()) break;
+            out.poll();
+        }
+        boolean pending = !out.isEmpty();
+        if (pending != writeInterest && key != null) {
+            writeInterest = pending;
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Closes the socket and gives up the seat; safe to call more than once.
+     */
+    void close() {
+        if (closed) return;
+        closed = true;
+        out.clear();
+        if (player != null) room.leave(player);
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+        server.connections.decrementAndGet();
+    }
+}
@@ -0,0 +1,161 @@
+package ict.mgame.bingogame.server;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * EventLoop class is one server thread: an NIO selector plus the rooms it owns.
+ * Everything a loop touches (its connections, its rooms and their BingoHalls) is used only by
+ * its own thread, so no game state needs a lock. Other threads hand work over with execute().
+ */
+final class EventLoop implements Runnable {
+
+    /**
+     * Handler interface is attached to every registered key.
+     */
+    interface Handler {
+        /**
+         * Handles the ready operations of a key.
+         * @param key Selected key
+         */
+        void handle(SelectionKey key) throws IOException;
+    }
+
+    // Owning server
+    final BingoServer server;
+    // Selector for this loop's channels
+    final Selector selector;
+    // Loop index, used in the thread name
+    private final int index;
+    // Work handed over by other threads
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // Rooms owned by this loop, by id
+    private final Map<Integer, Room> rooms = new HashMap<>();
+    // Rooms with a pending draw, earliest first
+    private final PriorityQueue<Room> timers = new PriorityQueue<>((a, b) -> Long.compare(a.nextDrawNanos, b.nextDrawNanos));
+    // Thread running the loop
+    private Thread thread;
+    // Cleared by shutdown()
+    private volatile boolean running = true;
+
+    EventLoop(BingoServer server, int index) throws IOException {
+        this.server = server;
+        this.index = index;
+        this.selector = Selector.open();
+    }
+
+    // Starts the loop thread
+    void start() {
+        thread = new Thread(this, "bingo-loop-" + index);
+        thread.start();
+    }
+
+    /**
+     * Runs a task on this loop's thread.
+     * @param task Work to run
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Looks up or creates a room owned by this loop; loop thread only.
+     * @param id Room id
+     * @return The room
+     */
+    Room room(int id) {
+        Room room = rooms.get(id);
+        if (room == null) {
+            room = new Room(this, id);
+            rooms.put(id, room);
+        }
+        return room;
+    }
+
+    /**
+     * Queues a room's next draw; loop thread only.
+     * @param room Room whose nextDrawNanos is set
+     */
+    void schedule(Room room) {
+        timers.add(room);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                long timeoutMs = 0;
+                Room next = timers.peek();
+                if (next != null) {
+                    timeoutMs = Math.max(1, (next.nextDrawNanos - System.nanoTime()) / 1_000_000);
+                }
+                selector.select(timeoutMs);
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // A failed task must not take the loop's other rooms down with it
+                        System.err.println(thread.getName() + " task failed: " + e);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Handler handler = (Handler) key.attachment();
+                    try {
+                        if (key.isValid()) handler.handle(key);
+                    } catch (IOException e) {
+                        if (handler instanceof Connection) {
+                            ((Connection) handler).close();
+                        } else {
+                            throw e;
+                        }
+                    } catch (RuntimeException e) {
+                        // A bug in one connection drops that connection, not the loop
+                        System.err.println(thread.getName() + " handler failed: " + e);
+                        if (handler instanceof Connection) ((Connection) handler).close();
+                    }
+                }
+
+                long now = System.nanoTime();
+                while ((next = timers.peek()) != null && next.nextDrawNanos <= now) {
+                    timers.poll();
+                    try {
+                        next.onTimer(now);
+                    } catch (RuntimeException e) {
+                        System.err.println(thread.getName() + " room " + next.id + " failed: " + e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(thread.getName() + " stopped: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Already shutting down
+            }
+        }
+    }
+
+    // Stops the loop and waits for its thread
+    void shutdown() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        if (thread != null) thread.join();
+    }
+}
@@ -0,0 +1,231 @@
+package ict.mgame.bingogame.server;
+
+import ict.mgame.bingogame.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadGenerator class measures how many rooms and players one machine can serve.
+ * It starts a BingoServer on a free loopback port, connects rooms x players clients that
+ * each JOIN with some cards, and reads every frame on a few selector threads of its own.
+ * Client and server share a clock, so each DRAW's sentNanos gives the draw-to-client latency:
+ * encoding, queueing, the loopback socket and the client's read, with no clock skew.
+ */
+public final class LoadGenerator {
+
+    // Initial per-client read buffer; grown for a large WELCOME
+    private static final int READ_BUFFER = 256;
+
+    // Draw-to-client latency, recorded by every client thread
+    private static final LatencyHistogram DELIVERY = new LatencyHistogram("draw_to_client");
+    // Frames received, by kind
+    private static final AtomicLong DRAWS_RECEIVED = new AtomicLong();
+    private static final AtomicLong WINS_RECEIVED = new AtomicLong();
+    private static final AtomicLong WELCOMES_RECEIVED = new AtomicLong();
+
+    /**
+     * ClientLoop class reads the frames of a share of the clients on one thread.
+     */
+    private static final class ClientLoop implements Runnable {
+
+        // Selector for this thread's clients
+        private final Selector selector;
+        // Clients connected by main() and waiting to be registered
+        private final ConcurrentLinkedQueue<SocketChannel> added = new ConcurrentLinkedQueue<>();
+        // Cleared to stop the thread
+        private volatile boolean running = true;
+
+        ClientLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        // Hands a connected client to this thread
+        void add(SocketChannel channel) {
+            added.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(100);
+                    SocketChannel channel;
+                    while ((channel = added.poll()) != null) {
+                        channel.configureBlocking(false);
+                        channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(READ_BUFFER));
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        try {
+                            read(key);
+                        } catch (IOException e) {
+                            key.cancel();
+                            key.channel().close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Client loop stopped: " + e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    try {
+                        key.channel().close();
+                    } catch (IOException ignored) {
+                        // Closing anyway
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // Closing anyway
+                }
+            }
+        }
+
+        // Reads a client's socket and handles every complete frame
+        private void read(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            ByteBuffer in = (ByteBuffer) key.attachment();
+            if (channel.read(in) < 0) throw new IOException("Server closed the connection");
+            long now = System.nanoTime();
+            in.flip();
+            int size;
+            while ((size = BingoProtocol.completeFrame(in)) > 0) {
+                int start = in.position();
+                switch (in.get(start + 2)) {
+                    case BingoProtocol.DRAW:
+                        DELIVERY.record(now - in.getLong(start + 13));
+                        DRAWS_RECEIVED.incrementAndGet();
+                        break;
+                    case BingoProtocol.WIN:
+                        WINS_RECEIVED.incrementAndGet();
+                        break;
+                    case BingoProtocol.WELCOME:
+                        WELCOMES_RECEIVED.incrementAndGet();
+                        break;
+                    default:
+                        break;
+                }
+                in.position(start + size);
+            }
+            if (in.remaining() >= 2 && 2 + (in.getShort(in.position()) & 0xFFFF) > in.capacity()) {
+                // Next frame does not fit: grow the buffer
+                ByteBuffer bigger = ByteBuffer.allocate(2 + (in.getShort(in.position()) & 0xFFFF));
+                bigger.put(in);
+                key.attach(bigger);
+                return;
+            }
+            in.compact();
+        }
+
+        // Stops the thread
+        void shutdown() {
+            running = false;
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Runs a load test and prints the results.
+     * @param args [rooms] [playersPerRoom] [cardsPerPlayer] [seconds] [drawIntervalMs] [serverLoops]
+     */
+    public static void main(String[] args) throws Exception {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int playersPerRoom = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int cardsPerPlayer = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        long intervalMs = args.length > 4 ? Long.parseLong(args[4]) : 250;
+        int processors = Runtime.getRuntime().availableProcessors();
+        int serverLoops = args.length > 5 ? Integer.parseInt(args[5]) : Math.max(1, processors / 2);
+        int clientThreads = Math.max(1, processors - serverLoops);
+
+        BingoServer server = new BingoServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), serverLoops, intervalMs);
+        server.start();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+
+        List<ClientLoop> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clientThreads; i++) {
+            ClientLoop client = new ClientLoop();
+            Thread thread = new Thread(client, "bingo-client-" + i);
+            thread.start();
+            clients.add(client);
+            threads.add(thread);
+        }
+
+        // Connect players room by room; stop early if the OS runs out of sockets
+        int connected = 0;
+        long connectStart = System.nanoTime();
+        connect:
+        for (int room = 0; room < rooms; room++) {
+            for (int p = 0; p < playersPerRoom; p++) {
+                try {
+                    SocketChannel channel = SocketChannel.open(address);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    ByteBuffer join = BingoProtocol.join(room, cardsPerPlayer);
+                    while (join.hasRemaining()) {
+                        channel.write(join);
+                    }
+                    clients.get(connected % clientThreads).add(channel);
+                    connected++;
+                } catch (IOException e) {
+                    System.err.println("Stopped connecting after " + connected + " clients: " + e);
+                    break connect;
+                }
+            }
+        }
+        double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+
+        // Let every room start its first round, then measure
+        Thread.sleep(2 * intervalMs + 500);
+        DELIVERY.reset();
+        server.getDrawLag().reset();
+        long drawsBefore = server.getDrawCount();
+        long receivedBefore = DRAWS_RECEIVED.get();
+        long winsBefore = WINS_RECEIVED.get();
+        long measureStart = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - measureStart) / 1e9;
+        long draws = server.getDrawCount() - drawsBefore;
+        long received = DRAWS_RECEIVED.get() - receivedBefore;
+        long wins = WINS_RECEIVED.get() - winsBefore;
+
+        System.out.printf(Locale.ROOT, "server loops=%d client threads=%d draw interval=%d ms%n",
+                serverLoops, clientThreads, intervalMs);
+        System.out.printf(Locale.ROOT, "connected %d of %d clients in %.1f s, %d welcomed, %d still open on the server%n",
+                connected, rooms * playersPerRoom, connectSeconds, WELCOMES_RECEIVED.get(), server.getConnectionCount());
+        System.out.printf(Locale.ROOT, "rooms=%d cards=%d%n",
+                server.getActiveRoomCount(), (long) connected * cardsPerPlayer);
+        System.out.printf(Locale.ROOT, "draws/s=%.0f deliveries/s=%.0f wins/s=%.1f%n",
+                draws / elapsed, received / elapsed, wins / elapsed);
+        System.out.println(DELIVERY);
+        System.out.println(server.getDrawLag());
+
+        for (ClientLoop client : clients) {
+            client.shutdown();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        server.stop();
+    }
+
+    private LoadGenerator() {
+    }
+}
@@ -0,0 +1,215 @@
+package ict.mgame.bingogame.server;
+
+import ict.mgame.bingogame.BingoCard;
+import ict.mgame.bingogame.BingoHall;
+import ict.mgame.bingogame.DrawDeck;
+import ict.mgame.bingogame.SplitMixRng;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Room class is one bingo game: a caller with its own deck and every card its players hold.
+ * A room belongs to exactly one EventLoop and is only used on that loop's thread.
+ * Each draw is encoded once and the same frame is queued to every player; BingoHall finds
+ * the winning cards in O(hits), so a draw costs the same whatever the card count.
+ * A round ends on the first draw with winners; the next one starts one interval later.
+ * Players joining mid-round watch the draws but their cards play from the next round.
+ */
+final class Room {
+
+    /**
+     * Player class is one connection's seat in the room.
+     */
+    static final class Player {
+        // Connection, null once the player has left
+        Connection connection;
+        // Player id, unique within the room
+        final int id;
+        // Cards held, in the order sent in WELCOME
+        final BingoCard[] cards;
+        // Hall id of the first card, valid while inHall
+        int firstCard;
+        // Whether the cards are registered in the hall
+        boolean inHall;
+
+        Player(Connection connection, int id, BingoCard[] cards) {
+            this.connection = connection;
+            this.id = id;
+            this.cards = cards;
+        }
+    }
+
+    // Room id
+    final int id;
+    // Time of the next draw or round start, in System.nanoTime() terms
+    long nextDrawNanos;
+    // Owning loop
+    private final EventLoop loop;
+    // Card index and caller
+    private final BingoHall hall = new BingoHall();
+    private final DrawDeck deck = new DrawDeck();
+    // Random source for the deck and new cards, seeded per room
+    private final SplitMixRng rng;
+    // Players in join order, including ones that left this round
+    private final List<Player> players = new ArrayList<>();
+    // Owning player per hall card id
+    private Player[] cardOwners = new Player[16];
+    // Connected players
+    private int playerCount;
+    // Id for the next player
+    private int nextPlayerId;
+    // Current round number, 0 before the first
+    private int round;
+    // Whether the current round has ended (or none has started)
+    private boolean roundOver = true;
+    // Whether a player left since the hall was last built
+    private boolean departed;
+    // Whether the room is in the loop's timer queue
+    private boolean scheduled;
+
+    Room(EventLoop loop, int id) {
+        this.loop = loop;
+        this.id = id;
+        this.rng = new SplitMixRng(SplitMixRng.mix(loop.server.getSeed() + id));
+    }
+
+    /**
+     * Seats a new player with freshly generated cards and sends them a WELCOME frame.
+     * @param connection Player's connection, already owned by this room's loop
+     * @param cardCount Number of cards, 1 to BingoProtocol.MAX_CARDS
+     * @return The new player
+     */
+    Player join(Connection connection, int cardCount) {
+        BingoCard[] cards = new BingoCard[cardCount];
+        for (int i = 0; i < cardCount; i++) {
+            cards[i] = BingoCard.generate(rng);
+        }
+        Player player = new Player(connection, nextPlayerId++, cards);
+        players.add(player);
+        playerCount++;
+
+        int payload = 4 + 4 + 2 + cardCount * BingoProtocol.CARD_BYTES;
+        ByteBuffer welcome = ByteBuffer.allocate(BingoProtocol.HEADER_BYTES + payload);
+        BingoProtocol.putHeader(welcome, BingoProtocol.WELCOME, payload);
+        welcome.putInt(id).putInt(player.id).putShort((short) cardCount);
+        for (BingoCard card : cards) {
+            welcome.putLong(card.packedLow()).putInt((int) card.packedHigh());
+        }
+        welcome.flip();
+        connection.send(welcome);
+
+        if (!scheduled) {
+            // First player in an idle room: start a round right away
+            loop.server.activeRooms.incrementAndGet();
+            nextDrawNanos = System.nanoTime();
+            scheduled = true;
+            loop.schedule(this);
+        }
+        return player;
+    }
+
+    /**
+     * Removes a player; their cards stay in the hall until the next round starts.
+     * @param player Player whose connection closed; null (no seat yet) is ignored
+     */
+    void leave(Player player) {
+        if (player == null || player.connection == null) return;
+        player.connection = null;
+        playerCount--;
+        departed = true;
+    }
+
+    /**
+     * Runs the room's next step when its timer is due: a draw, or a new round.
+     * @param now Current System.nanoTime()
+     */
+    void onTimer(long now) {
+        scheduled = false;
+        loop.server.drawLag.record(now - nextDrawNanos);
+        if (playerCount == 0) {
+            // Everyone left: go idle until the next join
+            players.clear();
+            hall.clear();
+            roundOver = true;
+            departed = false;
+            loop.server.activeRooms.decrementAndGet();
+            return;
+        }
+        if (roundOver) {
+            startRound();
+        } else {
+            drawNext();
+        }
+        // Fixed rate, but never try to catch up on missed ticks in a burst
+        long interval = loop.server.drawIntervalNanos;
+        nextDrawNanos = Math.max(nextDrawNanos + interval, now);
+        scheduled = true;
+        loop.schedule(this);
+    }
+
+    // Rebuilds the hall if needed, reshuffles and announces the round
+    private void startRound() {
+        if (departed) {
+            // Drop departed players and their cards
+            int kept = 0;
+            for (Player player : players) {
+                if (player.connection != null) players.set(kept++, player);
+            }
+            players.subList(kept, players.size()).clear();
+            hall.clear();
+            for (Player player : players) {
+                player.inHall = false;
+            }
+            departed = false;
+        }
+        for (Player player : players) {
+            if (!player.inHall) addToHall(player);
+        }
+        hall.reset();
+        deck.shuffle(rng);
+        round++;
+        roundOver = false;
+        broadcast(BingoProtocol.round(id, round));
+    }
+
+    // Registers a player's cards in the hall
+    private void addToHall(Player player) {
+        player.firstCard = hall.getCardCount();
+        int end = player.firstCard + player.cards.length;
+        if (cardOwners.length < end) {
+            cardOwners = Arrays.copyOf(cardOwners, Math.max(end, cardOwners.length * 2));
+        }
+        for (BingoCard card : player.cards) {
+            cardOwners[hall.addCard(card)] = player;
+        }
+        player.inHall = true;
+    }
+
+    // Draws one number, broadcasts it and any wins
+    private void drawNext() {
+        int number = deck.draw();
+        int call = deck.drawnCount();
+        broadcast(BingoProtocol.draw(id, round, call, number, System.nanoTime()));
+        loop.server.draws.incrementAndGet();
+
+        int winners = hall.draw(number);
+        for (int i = 0; i < winners; i++) {
+            int cardId = hall.getNewWinner(i);
+            Player owner = cardOwners[cardId];
+            broadcast(BingoProtocol.win(id, round, owner.id, cardId - owner.firstCard, call));
+        }
+        if (winners > 0 || deck.isEmpty()) roundOver = true;
+    }
+
+    // Queues one shared frame to every connected player
+    private void broadcast(ByteBuffer frame) {
+        // Index loop: a slow consumer may be closed (and leave) while sending
+        for (int i = 0; i < players.size(); i++) {
+            Connection connection = players.get(i).connection;
+            if (connection != null) connection.send(frame);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ict.mgame.bingogame.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.Assert.*;
+
+/**
+ * Loopback tests for BingoServer.
+ */
+public class BingoServerTest {
+
+    // Server under test: two loops, a draw every 10 ms
+    private BingoServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new BingoServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, 10);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        server.stop();
+    }
+
+    // Connects a blocking client to the server
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    // Reads one frame; the returned buffer starts at the type byte
+    private static ByteBuffer readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(2);
+        readFully(channel, length);
+        ByteBuffer frame = ByteBuffer.allocate(length.getShort(0) & 0xFFFF);
+        readFully(channel, frame);
+        frame.flip();
+        return frame;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new EOFException();
+        }
+    }
+
+    // Joins a room and checks the WELCOME frame and the next DRAW frame
+    private static void joinAndWatch(SocketChannel client, int room, int cards) throws IOException {
+        client.write(BingoProtocol.join(room, cards));
+        ByteBuffer welcome = readFrame(client);
+        assertEquals(BingoProtocol.WELCOME, welcome.get());
+        assertEquals(room, welcome.getInt());
+        welcome.getInt();  // Player id
+        assertEquals(cards, welcome.getShort());
+        assertEquals(cards * BingoProtocol.CARD_BYTES, welcome.remaining());
+
+        // A ROUND or WIN frame may come first
+        ByteBuffer frame;
+        do {
+            frame = readFrame(client);
+        } while (frame.get(0) != BingoProtocol.DRAW);
+        frame.get();
+        assertEquals(room, frame.getInt());
+        frame.getInt();  // Round
+        assertTrue(frame.get() >= 1);
+        int number = frame.get();
+        assertTrue(number >= 1 && number <= 75);
+    }
+
+    @Test
+    public void join_getsWelcomeThenDraws() throws IOException {
+        // Room 0 stays on the accepting loop, room 1 moves the socket to loop 1
+        try (SocketChannel first = connect(); SocketChannel second = connect()) {
+            joinAndWatch(first, 0, 3);
+            joinAndWatch(second, 1, 1);
+            assertEquals(2, server.getConnectionCount());
+            assertEquals(2, server.getActiveRoomCount());
+        }
+    }
+
+    @Test
+    public void disconnectDuringJoin_keepsTheLoopRunning() throws Exception {
+        // A server-side socket whose WELCOME write fails, as after a reset right after JOIN
+        try (ServerSocketChannel listener = ServerSocketChannel.open();
+             SocketChannel client = SocketChannel.open()) {
+            listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            client.connect(listener.getLocalAddress());
+            final SocketChannel accepted = listener.accept();
+            client.write(BingoProtocol.join(0, 1));
+            accepted.shutdownOutput();
+            accepted.configureBlocking(false);
+
+            final EventLoop loop = server.loopFor(0);
+            server.connections.incrementAndGet();
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        new Connection(server, accepted).register(loop);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, server.getConnectionCount());
+        }
+
+        // The same loop still accepts, seats and draws for new players
+        try (SocketChannel client = connect()) {
+            joinAndWatch(client, 0, 2);
+            assertEquals(1, server.getConnectionCount());
+        }
+    }
+}
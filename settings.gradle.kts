@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Bingo game"
 include(":app")
+include(":benchmark")
+include(":server")
  
\ No newline at end of file